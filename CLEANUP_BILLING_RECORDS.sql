@@ -1,3 +1,10 @@
+-- Billing line items belong to their billing record; delete them first.
+-- Since line items exist, month close no longer updates trips, so the
+-- "reset trips" statements below only matter for months billed before that.
+DELETE FROM billing_line_items
+WHERE billing_record_id IN (SELECT id FROM billing_records
+                            WHERE vendor_id = 1 AND billing_month = 11 AND billing_year = 2025);
+
 
 
 -- Delete billing record for specific vendor and month/year
@@ -0,0 +1,36 @@
+-- Move primary keys from IDENTITY columns to pooled sequences.
+-- For existing databases only: run once before starting the version that uses
+-- GenerationType.SEQUENCE. A fresh database needs no migration; start the
+-- application once to create the schema, then run data.sql, which aligns the
+-- sequences itself.
+-- Each sequence increments by 50 to match Hibernate's default allocation size;
+-- the pooled optimizer hands out ids (value - 49 .. value] per nextval call.
+
+CREATE SEQUENCE IF NOT EXISTS client_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS vendor_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS employee_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS trip_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS billing_configuration_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS billing_record_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_seq INCREMENT BY 50;
+
+-- Align every sequence with existing data so the first pooled block
+-- starts above the current maximum id.
+SELECT setval('client_seq', COALESCE((SELECT MAX(id) FROM clients), 0) + 50, false);
+SELECT setval('vendor_seq', COALESCE((SELECT MAX(id) FROM vendors), 0) + 50, false);
+SELECT setval('employee_seq', COALESCE((SELECT MAX(id) FROM employees), 0) + 50, false);
+SELECT setval('trip_seq', COALESCE((SELECT MAX(id) FROM trips), 0) + 50, false);
+SELECT setval('billing_configuration_seq', COALESCE((SELECT MAX(id) FROM billing_configurations), 0) + 50, false);
+SELECT setval('billing_record_seq', COALESCE((SELECT MAX(id) FROM billing_records), 0) + 50, false);
+SELECT setval('user_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+
+-- Replace the IDENTITY defaults with the sequences so seed scripts that omit
+-- the id (e.g. data.sql users) draw from the same range as Hibernate.
+-- A raw nextval() consumes a whole block value, so it never overlaps a pooled block.
+ALTER TABLE clients ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('client_seq');
+ALTER TABLE vendors ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('vendor_seq');
+ALTER TABLE employees ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('employee_seq');
+ALTER TABLE trips ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('trip_seq');
+ALTER TABLE billing_configurations ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('billing_configuration_seq');
+ALTER TABLE billing_records ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('billing_record_seq');
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS, ALTER COLUMN id SET DEFAULT nextval('user_seq');
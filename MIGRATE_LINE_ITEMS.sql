@@ -0,0 +1,13 @@
+-- Backfill billing_line_items for months billed before line items existed,
+-- when the per-trip breakdown was written onto trips rows.
+-- Run once after starting the version that creates billing_line_items.
+
+INSERT INTO billing_line_items (billing_record_id, trip_id, vendor_id, employee_id, trip_date,
+                                base_cost, extra_kilometers, extra_hours,
+                                vendor_incentive, employee_incentive, total_cost)
+SELECT t.billing_record_id, t.id, t.vendor_id, t.employee_id, t.trip_date,
+       t.base_cost, t.extra_kilometers, t.extra_hours,
+       t.vendor_incentive, t.employee_incentive, t.total_cost
+FROM trips t
+WHERE t.billing_record_id IS NOT NULL
+ON CONFLICT (billing_record_id, trip_id) DO NOTHING;
@@ -0,0 +1,13 @@
+package com.moveinsync.billing.analytics;
+
+/**
+ * Scope types of analytics reports and their persisted rows.
+ */
+public final class AnalyticsScope {
+
+    public static final String CLIENT = "CLIENT";
+    public static final String VENDOR = "VENDOR";
+
+    private AnalyticsScope() {
+    }
+}
@@ -0,0 +1,96 @@
+package com.moveinsync.billing.analytics;
+
+import com.moveinsync.billing.util.Hashing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Count-Min sketch for weighted frequency estimates.
+ * An estimate never undercounts and overcounts by at most
+ * {@code epsilon * totalWeight} with probability {@code 1 - delta}, where
+ * epsilon = e / width and delta = e^-depth. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[][] table;
+    private long totalWeight;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.table = new long[depth][width];
+    }
+
+    public void add(String item, long weight) {
+        long h1 = Hashing.hash(item, Hashing.SEED_1);
+        long h2 = Hashing.hash(item, Hashing.SEED_2);
+        for (int row = 0; row < depth; row++) {
+            table[row][(int) Math.floorMod(h1 + row * h2, (long) width)] += weight;
+        }
+        totalWeight += weight;
+    }
+
+    public long estimate(String item) {
+        long h1 = Hashing.hash(item, Hashing.SEED_1);
+        long h2 = Hashing.hash(item, Hashing.SEED_2);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row][(int) Math.floorMod(h1 + row * h2, (long) width)]);
+        }
+        return min;
+    }
+
+    /**
+     * Additive error bound (epsilon * N) that holds with probability 1 - e^-depth.
+     */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * totalWeight);
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Sketch of both inputs' combined stream; they must have the same shape.
+     */
+    public static CountMinSketch merge(CountMinSketch a, CountMinSketch b) {
+        if (a.depth != b.depth || a.width != b.width) {
+            throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+        }
+        CountMinSketch merged = new CountMinSketch(a.depth, a.width);
+        for (int row = 0; row < a.depth; row++) {
+            for (int col = 0; col < a.width; col++) {
+                merged.table[row][col] = a.table[row][col] + b.table[row][col];
+            }
+        }
+        merged.totalWeight = a.totalWeight + b.totalWeight;
+        return merged;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(totalWeight);
+        for (long[] row : table) {
+            for (long cell : row) {
+                out.writeLong(cell);
+            }
+        }
+    }
+
+    public static CountMinSketch readFrom(DataInputStream in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.totalWeight = in.readLong();
+        for (long[] row : sketch.table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = in.readLong();
+            }
+        }
+        return sketch;
+    }
+}
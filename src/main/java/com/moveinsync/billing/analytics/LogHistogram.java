@@ -0,0 +1,196 @@
+package com.moveinsync.billing.analytics;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Mergeable log-linear histogram (HDR style) over non-negative decimals with
+ * two fractional digits, e.g. kilometres or hours.
+ *
+ * Values below 64 hundredths are counted exactly; above that each power of
+ * two is split into 64 linear sub-buckets, so any reported percentile is
+ * within 1/64 (~1.6%) of the true value. Merging adds bucket counts, so
+ * per-day histograms combine into any range without touching raw trips.
+ * Not thread-safe.
+ */
+public class LogHistogram {
+
+    public static final double RELATIVE_ERROR = 1.0 / 64;
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] counts = new long[SUB_BUCKETS * 2];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(BigDecimal value) {
+        recordHundredths(value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact(), 1);
+    }
+
+    void recordHundredths(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram values must be non-negative: " + value);
+        }
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index] += count;
+        totalCount += count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(LogHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Smallest recorded value such that at least {@code percentile}% of
+     * values are less than or equal to it (nearest-rank), or null when empty.
+     * Time Complexity: O(b) over the populated bucket range
+     */
+    public BigDecimal valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Bucket midpoint, clamped to the exact extremes
+                long value = Math.max(min, Math.min(max, (lowerBound(i) + upperBound(i)) / 2));
+                return BigDecimal.valueOf(value, 2);
+            }
+        }
+        return getMax();
+    }
+
+    public BigDecimal getMax() {
+        return totalCount == 0 ? null : BigDecimal.valueOf(max, 2);
+    }
+
+    /**
+     * Sparse encoding: only populated buckets are written, as varint
+     * (index gap, count) pairs, so a day of trips takes a few hundred bytes.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, totalCount);
+            if (totalCount > 0) {
+                writeVarLong(out, min);
+                writeVarLong(out, max);
+            }
+            int previous = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    writeVarLong(out, i - previous);
+                    writeVarLong(out, counts[i]);
+                    previous = i;
+                }
+            }
+            // Gap 0 terminates the bucket list
+            writeVarLong(out, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static LogHistogram fromBytes(byte[] payload) throws IOException {
+        LogHistogram histogram = new LogHistogram();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported histogram format " + version);
+            }
+            long total = readVarLong(in);
+            if (total > 0) {
+                histogram.min = readVarLong(in);
+                histogram.max = readVarLong(in);
+            }
+            int index = -1;
+            long gap;
+            while ((gap = readVarLong(in)) != 0) {
+                index += (int) gap;
+                if (index >= histogram.counts.length) {
+                    histogram.counts = Arrays.copyOf(histogram.counts,
+                            Math.max(index + 1, histogram.counts.length * 2));
+                }
+                histogram.counts[index] = readVarLong(in);
+            }
+            histogram.totalCount = total;
+        }
+        return histogram;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        return lowerBound(index) + (1L << shift) - 1;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
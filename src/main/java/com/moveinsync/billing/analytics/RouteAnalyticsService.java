@@ -0,0 +1,248 @@
+package com.moveinsync.billing.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moveinsync.billing.dto.RouteStatDTO;
+import com.moveinsync.billing.dto.TopRoutesReportDTO;
+import com.moveinsync.billing.model.entity.RouteSketchSnapshot;
+import com.moveinsync.billing.repository.RouteSketchSnapshotRepository;
+import com.moveinsync.billing.service.VendorService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming route analytics.
+ * Keeps a fixed-size {@link RouteSummary} per client-month and vendor-month,
+ * fed as trips are ingested (volume) and billed (cost). Trips recorded since
+ * the last snapshot are held as per-scope deltas and merged under a row lock
+ * into route_sketch_snapshots on a schedule, so every node's trips add up.
+ * Top-route reports combine the stored summary, kept in a small expiring
+ * cache, with the local delta in time independent of trip count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteAnalyticsService {
+
+    private final RouteSketchSnapshotRepository snapshotRepository;
+    private final VendorService vendorService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Trips recorded since the last snapshot, per scope-month
+    private final Map<SummaryKey, RouteSummary> pending = new ConcurrentHashMap<>();
+
+    // Stored summaries recently read; about 130 KB each, refreshed so other nodes' trips show up
+    private final Cache<SummaryKey, RouteSummary> stored = Caffeine.newBuilder()
+            .maximumSize(256)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    // Exclusive while a delta moves from pending into the stored summary, so a
+    // report never sees it in neither place; reports share it
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public void recordTrip(Long vendorId, LocalDateTime tripDate, String source, String destination) {
+        String route = routeOf(source, destination);
+        YearMonth month = YearMonth.from(tripDate);
+        record(AnalyticsScope.VENDOR, vendorId, month, delta -> delta.recordTrip(route));
+        Long clientId = vendorService.getClientId(vendorId);
+        if (clientId != null) {
+            record(AnalyticsScope.CLIENT, clientId, month, delta -> delta.recordTrip(route));
+        }
+    }
+
+    public void recordCost(Long vendorId, LocalDateTime tripDate, String source, String destination,
+                           BigDecimal cost) {
+        String route = routeOf(source, destination);
+        long paise = cost.movePointRight(2).longValue();
+        YearMonth month = YearMonth.from(tripDate);
+        record(AnalyticsScope.VENDOR, vendorId, month, delta -> delta.recordCost(route, paise));
+        Long clientId = vendorService.getClientId(vendorId);
+        if (clientId != null) {
+            record(AnalyticsScope.CLIENT, clientId, month, delta -> delta.recordCost(route, paise));
+        }
+    }
+
+    /**
+     * Approximate top routes for a client or vendor month.
+     * Time Complexity: O(k log k) for the fixed counter count k, plus a
+     * sketch merge when trips are pending
+     */
+    public TopRoutesReportDTO topRoutes(String scopeType, Long scopeId, int month, int year, int limit) {
+        SummaryKey key = new SummaryKey(scopeType, scopeId, year, month);
+        RouteSummary summary;
+        snapshotLock.readLock().lock();
+        try {
+            summary = storedSummary(key);
+            RouteSummary delta = pending.get(key);
+            if (delta != null) {
+                summary = RouteSummary.merge(summary, delta);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        int top = Math.max(1, Math.min(limit, RouteSummary.HEAVY_HITTERS));
+
+        return summary.read((volumeTop, volumeSketch, costTop, costSketch) -> TopRoutesReportDTO.builder()
+                .scopeType(scopeType)
+                .scopeId(scopeId)
+                .month(month)
+                .year(year)
+                .totalTrips(volumeSketch.getTotalWeight())
+                .totalCost(BigDecimal.valueOf(costSketch.getTotalWeight(), 2))
+                .tripCountErrorBound(volumeSketch.errorBound())
+                .costErrorBound(BigDecimal.valueOf(costSketch.errorBound(), 2))
+                .topByVolume(toStats(volumeTop.top(top), volumeSketch, 0))
+                .topByCost(toStats(costTop.top(top), costSketch, 2))
+                .build());
+    }
+
+    /**
+     * Merges pending deltas into their stored summaries, one transaction per
+     * scope-month. A delta that fails to write is kept for the next snapshot.
+     * Reports of a scope-month wait while its delta is being merged; trips
+     * keep being recorded into a fresh delta meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${billing.analytics.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        int written = 0;
+        for (SummaryKey key : List.copyOf(pending.keySet())) {
+            snapshotLock.writeLock().lock();
+            try {
+                RouteSummary delta = pending.remove(key);
+                if (delta == null) {
+                    continue;
+                }
+                try {
+                    stored.put(key, transactionTemplate.execute(status -> mergeInto(key, delta)));
+                    written++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not snapshot route summary {}: {}", key, e.getMessage());
+                    pending.merge(key, delta, RouteSummary::merge);
+                }
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+        }
+        if (written > 0) {
+            log.debug("Snapshotted {} route summaries", written);
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Final route summary snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    // Recorded inside compute so a snapshot can't take the delta halfway through
+    private void record(String scopeType, Long scopeId, YearMonth month, Consumer<RouteSummary> update) {
+        SummaryKey key = new SummaryKey(scopeType, scopeId, month.getYear(), month.getMonthValue());
+        pending.compute(key, (k, delta) -> {
+            RouteSummary target = delta != null ? delta : new RouteSummary();
+            update.accept(target);
+            return target;
+        });
+    }
+
+    // Loaded outside any map lock; a scope without a snapshot is not cached
+    private RouteSummary storedSummary(SummaryKey key) {
+        RouteSummary summary = stored.getIfPresent(key);
+        if (summary != null) {
+            return summary;
+        }
+        Optional<RouteSketchSnapshot> snapshot = snapshotRepository
+                .findByScopeTypeAndScopeIdAndSketchYearAndSketchMonth(
+                        key.getScopeType(), key.getScopeId(), key.getYear(), key.getMonth());
+        if (snapshot.isEmpty()) {
+            return new RouteSummary();
+        }
+        summary = read(key, snapshot.get());
+        stored.put(key, summary);
+        return summary;
+    }
+
+    private RouteSummary mergeInto(SummaryKey key, RouteSummary delta) {
+        Optional<RouteSketchSnapshot> existing = snapshotRepository.findForUpdate(
+                key.getScopeType(), key.getScopeId(), key.getYear(), key.getMonth());
+        RouteSketchSnapshot snapshot = existing.orElseGet(() -> RouteSketchSnapshot.builder()
+                .scopeType(key.getScopeType())
+                .scopeId(key.getScopeId())
+                .sketchYear(key.getYear())
+                .sketchMonth(key.getMonth())
+                .build());
+        RouteSummary merged = existing.isPresent()
+                ? RouteSummary.merge(read(key, snapshot), delta)
+                : delta;
+        try {
+            snapshot.setPayload(merged.toSnapshot());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        snapshotRepository.save(snapshot);
+        return merged;
+    }
+
+    private RouteSummary read(SummaryKey key, RouteSketchSnapshot snapshot) {
+        try {
+            return RouteSummary.fromSnapshot(snapshot.getPayload());
+        } catch (IOException e) {
+            log.warn("Discarding unreadable route snapshot {}: {}", key, e.getMessage());
+            return new RouteSummary();
+        }
+    }
+
+    private static List<RouteStatDTO> toStats(List<SpaceSaving.Counter> counters,
+                                              CountMinSketch sketch, int scale) {
+        return counters.stream()
+                .map(counter -> {
+                    // Both structures only overestimate, so the tighter one wins
+                    long estimate = Math.min(counter.getCount(), sketch.estimate(counter.getItem()));
+                    long lowerBound = Math.max(0, counter.getCount() - counter.getError());
+                    return RouteStatDTO.builder()
+                            .route(counter.getItem())
+                            .estimate(BigDecimal.valueOf(estimate, scale))
+                            .lowerBound(BigDecimal.valueOf(Math.min(lowerBound, estimate), scale))
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    static String routeOf(String source, String destination) {
+        return normalize(source) + " -> " + normalize(destination);
+    }
+
+    private static String normalize(String place) {
+        return place == null || place.isBlank() ? "unknown" : place.trim();
+    }
+
+    @Value
+    private static class SummaryKey {
+        String scopeType;
+        Long scopeId;
+        int year;
+        int month;
+    }
+}
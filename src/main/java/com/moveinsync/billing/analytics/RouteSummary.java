@@ -0,0 +1,87 @@
+package com.moveinsync.billing.analytics;
+
+import java.io.*;
+
+/**
+ * Route statistics for one scope (client or vendor) and month: heavy hitters
+ * and point estimates by trip volume and by billed cost (in paise).
+ * Fixed size regardless of trip count. All access is synchronized.
+ */
+public class RouteSummary {
+
+    static final int HEAVY_HITTERS = 64;
+    static final int SKETCH_DEPTH = 4;
+    static final int SKETCH_WIDTH = 2048;
+
+    private final SpaceSaving volumeTop;
+    private final CountMinSketch volumeSketch;
+    private final SpaceSaving costTop;
+    private final CountMinSketch costSketch;
+
+    public RouteSummary() {
+        this(new SpaceSaving(HEAVY_HITTERS), new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH),
+                new SpaceSaving(HEAVY_HITTERS), new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH));
+    }
+
+    private RouteSummary(SpaceSaving volumeTop, CountMinSketch volumeSketch,
+                         SpaceSaving costTop, CountMinSketch costSketch) {
+        this.volumeTop = volumeTop;
+        this.volumeSketch = volumeSketch;
+        this.costTop = costTop;
+        this.costSketch = costSketch;
+    }
+
+    public synchronized void recordTrip(String route) {
+        volumeTop.add(route, 1);
+        volumeSketch.add(route, 1);
+    }
+
+    public synchronized void recordCost(String route, long costPaise) {
+        if (costPaise <= 0) {
+            return;
+        }
+        costTop.add(route, costPaise);
+        costSketch.add(route, costPaise);
+    }
+
+    public synchronized <T> T read(Reader<T> reader) {
+        return reader.read(volumeTop, volumeSketch, costTop, costSketch);
+    }
+
+    /**
+     * Summary of both inputs combined, e.g. a stored snapshot and the
+     * trips recorded since. Neither input is modified.
+     */
+    public static RouteSummary merge(RouteSummary a, RouteSummary b) {
+        return a.read((volumeTopA, volumeSketchA, costTopA, costSketchA) ->
+                b.read((volumeTopB, volumeSketchB, costTopB, costSketchB) -> new RouteSummary(
+                        SpaceSaving.merge(volumeTopA, volumeTopB),
+                        CountMinSketch.merge(volumeSketchA, volumeSketchB),
+                        SpaceSaving.merge(costTopA, costTopB),
+                        CountMinSketch.merge(costSketchA, costSketchB))));
+    }
+
+    public synchronized byte[] toSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            volumeTop.writeTo(out);
+            volumeSketch.writeTo(out);
+            costTop.writeTo(out);
+            costSketch.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static RouteSummary fromSnapshot(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new RouteSummary(SpaceSaving.readFrom(in), CountMinSketch.readFrom(in),
+                    SpaceSaving.readFrom(in), CountMinSketch.readFrom(in));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(SpaceSaving volumeTop, CountMinSketch volumeSketch,
+               SpaceSaving costTop, CountMinSketch costSketch);
+    }
+}
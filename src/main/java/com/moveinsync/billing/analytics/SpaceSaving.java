@@ -0,0 +1,138 @@
+package com.moveinsync.billing.analytics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Space-Saving heavy-hitter summary with a fixed number of counters.
+ * Any item with true weight above totalWeight / capacity is guaranteed to be
+ * tracked; each counter overestimates by at most its recorded error.
+ * Not thread-safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Time Complexity: O(1), or O(k) when the minimum counter is replaced
+     */
+    public void add(String item, long weight) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(item, weight, 0));
+            return;
+        }
+
+        Counter min = Collections.min(counters.values(), Comparator.comparingLong(c -> c.count));
+        counters.remove(min.item);
+        counters.put(item, new Counter(item, min.count + weight, min.count));
+    }
+
+    /**
+     * Tracked items, heaviest first.
+     */
+    public List<Counter> top(int limit) {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong((Counter c) -> c.count).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Summary of both inputs' combined stream, keeping the heaviest
+     * counters. An item missing from a full summary may still have up to
+     * that summary's minimum count there, so the minimum is added to both
+     * its count and its error, which keeps the overestimate guarantee.
+     * Time Complexity: O(k log k) for k counters
+     */
+    public static SpaceSaving merge(SpaceSaving a, SpaceSaving b) {
+        long minA = a.minCount();
+        long minB = b.minCount();
+        Map<String, Counter> combined = new HashMap<>((a.counters.size() + b.counters.size()) * 2);
+        for (Counter counter : a.counters.values()) {
+            Counter other = b.counters.get(counter.item);
+            combined.put(counter.item, other != null
+                    ? new Counter(counter.item, counter.count + other.count, counter.error + other.error)
+                    : new Counter(counter.item, counter.count + minB, counter.error + minB));
+        }
+        for (Counter counter : b.counters.values()) {
+            if (!a.counters.containsKey(counter.item)) {
+                combined.put(counter.item,
+                        new Counter(counter.item, counter.count + minA, counter.error + minA));
+            }
+        }
+
+        int capacity = Math.max(a.capacity, b.capacity);
+        List<Counter> sorted = new ArrayList<>(combined.values());
+        sorted.sort(Comparator.comparingLong((Counter c) -> c.count).reversed());
+        SpaceSaving merged = new SpaceSaving(capacity);
+        for (Counter counter : sorted.subList(0, Math.min(capacity, sorted.size()))) {
+            merged.counters.put(counter.item, counter);
+        }
+        return merged;
+    }
+
+    // Weight an untracked item may have had: zero until every counter is in use
+    private long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return Collections.min(counters.values(), Comparator.comparingLong(c -> c.count)).count;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(capacity);
+        out.writeInt(counters.size());
+        for (Counter counter : counters.values()) {
+            out.writeUTF(counter.item);
+            out.writeLong(counter.count);
+            out.writeLong(counter.error);
+        }
+    }
+
+    public static SpaceSaving readFrom(DataInputStream in) throws IOException {
+        SpaceSaving summary = new SpaceSaving(in.readInt());
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            Counter counter = new Counter(in.readUTF(), in.readLong(), in.readLong());
+            summary.counters.put(counter.item, counter);
+        }
+        return summary;
+    }
+
+    public static final class Counter {
+        private final String item;
+        private long count;
+        private final long error;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // Upper bound on how much count overstates the true weight
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.moveinsync.billing.analytics;
+
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.dto.DistributionDTO;
+import com.moveinsync.billing.dto.PercentileReportDTO;
+import com.moveinsync.billing.model.entity.TripHistogram;
+import com.moveinsync.billing.repository.TripHistogramRepository;
+import com.moveinsync.billing.repository.TripRepository;
+import com.moveinsync.billing.service.VendorService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Distance and duration percentiles per vendor and client.
+ * Ingested trips are folded into per vendor-day {@link LogHistogram}s held
+ * in memory and merged into trip_histograms on a schedule. Reports merge
+ * the stored days of the requested range (plus anything not yet flushed)
+ * instead of loading and sorting raw trips.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TripDistributionService {
+
+    private final TripHistogramRepository histogramRepository;
+    private final TripRepository tripRepository;
+    private final VendorService vendorService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Trips recorded since the last flush, per vendor-day
+    private final Map<DayKey, DayHistograms> pending = new ConcurrentHashMap<>();
+    // Shared by ingestion from its insert until the trips are recorded; exclusive
+    // while a rebuild takes its scan snapshot and drops the pending days it covers
+    private final ReentrantReadWriteLock ingestLock = new ReentrantReadWriteLock();
+
+    public void recordTrip(Long vendorId, LocalDateTime tripDate, BigDecimal distanceKm, BigDecimal durationHours) {
+        pending.compute(new DayKey(vendorId, tripDate.toLocalDate()), (key, day) -> {
+            DayHistograms target = day != null ? day : new DayHistograms();
+            target.record(distanceKm, durationHours);
+            return target;
+        });
+    }
+
+    /**
+     * Runs an ingestion insert together with the {@link #recordTrip} calls for
+     * the trips it committed. A rebuild therefore sees each trip either in
+     * its scan or in pending, never in both.
+     */
+    public void ingesting(Runnable insertAndRecord) {
+        ingestLock.readLock().lock();
+        try {
+            insertAndRecord.run();
+        } finally {
+            ingestLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Percentile report over [from, to] for a client or vendor.
+     * Time Complexity: O(d * b) for d stored days and b populated buckets
+     */
+    public PercentileReportDTO percentiles(String scopeType, Long scopeId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        List<TripHistogram> rows = AnalyticsScope.CLIENT.equals(scopeType)
+                ? histogramRepository.findByClientIdAndHistogramDateBetween(scopeId, from, to)
+                : histogramRepository.findByVendorIdAndHistogramDateBetween(scopeId, from, to);
+
+        DayHistograms merged = new DayHistograms();
+        for (TripHistogram row : rows) {
+            merged.add(DayHistograms.of(row));
+        }
+        for (DayKey key : pending.keySet()) {
+            if (key.getDay().isBefore(from) || key.getDay().isAfter(to) || !inScope(key, scopeType, scopeId)) {
+                continue;
+            }
+            pending.computeIfPresent(key, (k, day) -> {
+                merged.add(day);
+                return day;
+            });
+        }
+
+        return PercentileReportDTO.builder()
+                .scopeType(scopeType)
+                .scopeId(scopeId)
+                .from(from)
+                .to(to)
+                .tripCount(merged.distance.getTotalCount())
+                .relativeError(LogHistogram.RELATIVE_ERROR)
+                .distanceKm(toDistribution(merged.distance))
+                .durationHours(toDistribution(merged.duration))
+                .build();
+    }
+
+    /**
+     * Merges pending vendor-days into their stored rows, one transaction per
+     * day. A day that fails to write is kept for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${billing.analytics.histogram-flush-interval-ms:60000}")
+    public void flush() {
+        for (DayKey key : List.copyOf(pending.keySet())) {
+            DayHistograms delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeInto(key, delta));
+            } catch (RuntimeException e) {
+                log.warn("Could not flush trip histograms for vendor {} on {}: {}",
+                        key.getVendorId(), key.getDay(), e.getMessage());
+                pending.merge(key, delta, DayHistograms::add);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recomputes stored histograms for [from, to] from the trips table, e.g.
+     * for trips that predate histogram maintenance, on the batch connection pool.
+     * Time Complexity: O(n) single streaming scan of the range
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Integer written = BatchRoutingDataSource.batch(() -> transactionTemplate.execute(status -> {
+            Map<DayKey, DayHistograms> days = new HashMap<>();
+            Map<Long, Long> clients = new HashMap<>();
+            Stream<TripMeasurement> scan;
+            // Opening the stream runs the query, which fixes the scan's snapshot. With
+            // ingestion paused, every trip committed before it has been recorded into
+            // pending and is dropped here; trips committed later stay pending only.
+            ingestLock.writeLock().lock();
+            try {
+                scan = tripRepository.streamMeasurements(from.atStartOfDay(), to.atTime(LocalTime.MAX));
+                pending.keySet().removeIf(key -> !key.getDay().isBefore(from) && !key.getDay().isAfter(to));
+            } finally {
+                ingestLock.writeLock().unlock();
+            }
+            try (Stream<TripMeasurement> trips = scan) {
+                trips.forEach(trip -> {
+                    days.computeIfAbsent(new DayKey(trip.getVendorId(), trip.getTripDate().toLocalDate()),
+                                    key -> new DayHistograms())
+                            .record(trip.getDistanceKm(), trip.getDurationHours());
+                    clients.putIfAbsent(trip.getVendorId(), trip.getClientId());
+                });
+            }
+
+            histogramRepository.deleteByDateRange(from, to);
+            List<TripHistogram> rows = new ArrayList<>(days.size());
+            days.forEach((key, day) -> rows.add(day.toRow(key, clients.get(key.getVendorId()))));
+            histogramRepository.saveAll(rows);
+            return rows.size();
+        }));
+        log.info("Rebuilt {} vendor-day trip histograms for {} to {}", written, from, to);
+        return written == null ? 0 : written;
+    }
+
+    private void mergeInto(DayKey key, DayHistograms delta) {
+        Optional<TripHistogram> existing = histogramRepository.findForUpdate(key.getVendorId(), key.getDay());
+        if (existing.isPresent()) {
+            TripHistogram row = existing.get();
+            DayHistograms.of(row).add(delta).copyTo(row);
+            return;
+        }
+        Long clientId = vendorService.getClientId(key.getVendorId());
+        if (clientId == null) {
+            log.warn("Dropping trip histograms for unknown vendor {}", key.getVendorId());
+            return;
+        }
+        histogramRepository.save(delta.toRow(key, clientId));
+    }
+
+    private boolean inScope(DayKey key, String scopeType, Long scopeId) {
+        return AnalyticsScope.CLIENT.equals(scopeType)
+                ? scopeId.equals(vendorService.getClientId(key.getVendorId()))
+                : scopeId.equals(key.getVendorId());
+    }
+
+    private static DistributionDTO toDistribution(LogHistogram histogram) {
+        return DistributionDTO.builder()
+                .p50(histogram.valueAtPercentile(50))
+                .p90(histogram.valueAtPercentile(90))
+                .p99(histogram.valueAtPercentile(99))
+                .max(histogram.getMax())
+                .build();
+    }
+
+    @Value
+    private static class DayKey {
+        Long vendorId;
+        LocalDate day;
+    }
+
+    private static final class DayHistograms {
+        private final LogHistogram distance;
+        private final LogHistogram duration;
+
+        DayHistograms() {
+            this(new LogHistogram(), new LogHistogram());
+        }
+
+        private DayHistograms(LogHistogram distance, LogHistogram duration) {
+            this.distance = distance;
+            this.duration = duration;
+        }
+
+        static DayHistograms of(TripHistogram row) {
+            try {
+                return new DayHistograms(LogHistogram.fromBytes(row.getDistanceHistogram()),
+                        LogHistogram.fromBytes(row.getDurationHistogram()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable trip histogram " + row.getId(), e);
+            }
+        }
+
+        void record(BigDecimal distanceKm, BigDecimal durationHours) {
+            distance.record(distanceKm);
+            duration.record(durationHours);
+        }
+
+        DayHistograms add(DayHistograms other) {
+            distance.merge(other.distance);
+            duration.merge(other.duration);
+            return this;
+        }
+
+        void copyTo(TripHistogram row) {
+            row.setTripCount(distance.getTotalCount());
+            row.setDistanceHistogram(distance.toBytes());
+            row.setDurationHistogram(duration.toBytes());
+        }
+
+        TripHistogram toRow(DayKey key, Long clientId) {
+            TripHistogram row = TripHistogram.builder()
+                    .vendorId(key.getVendorId())
+                    .clientId(clientId)
+                    .histogramDate(key.getDay())
+                    .build();
+            copyTo(row);
+            return row;
+        }
+    }
+}
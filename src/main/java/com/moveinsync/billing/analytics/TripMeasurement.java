@@ -0,0 +1,20 @@
+package com.moveinsync.billing.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a trip that feed its vendor-day histograms.
+ */
+@Value
+@AllArgsConstructor
+public class TripMeasurement {
+    Long vendorId;
+    Long clientId;
+    LocalDateTime tripDate;
+    BigDecimal distanceKm;
+    BigDecimal durationHours;
+}
@@ -0,0 +1,16 @@
+package com.moveinsync.billing.bulk;
+
+import org.slf4j.Logger;
+
+/**
+ * Progress callback for long-running bulk writes.
+ */
+@FunctionalInterface
+public interface BulkProgress {
+
+    void rowsWritten(String table, long rows, long totalRows);
+
+    static BulkProgress logTo(Logger log) {
+        return (table, rows, totalRows) -> log.info("Bulk write to {}: {}/{} rows", table, rows, totalRows);
+    }
+}
@@ -0,0 +1,172 @@
+package com.moveinsync.billing.bulk;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Streams rows into a table with PostgreSQL's binary COPY protocol.
+ * Values are written in the server's wire format, so there is no text
+ * formatting or parsing on either side. Column types must match the
+ * target exactly (int8, int4, numeric, timestamp, text/varchar).
+ * Not thread-safe; one instance per COPY.
+ */
+public final class PgBinaryCopy implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final short NUMERIC_POS = 0x0000;
+    private static final short NUMERIC_NEG = 0x4000;
+
+    private final PGCopyOutputStream copy;
+    private final DataOutputStream out;
+    private final String table;
+    private final long totalRows;
+    private final long progressInterval;
+    private final BulkProgress progress;
+    private long rows;
+
+    private PgBinaryCopy(PGCopyOutputStream copy, String table, long totalRows,
+                         long progressInterval, BulkProgress progress) {
+        this.copy = copy;
+        this.out = new DataOutputStream(copy);
+        this.table = table;
+        this.totalRows = totalRows;
+        this.progressInterval = progressInterval;
+        this.progress = progress;
+    }
+
+    public static PgBinaryCopy open(PGConnection connection, String table, String columns, long totalRows,
+                                    long progressInterval, BulkProgress progress) throws SQLException, IOException {
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection,
+                "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT binary)", BUFFER_BYTES);
+        PgBinaryCopy writer = new PgBinaryCopy(copy, table, totalRows, progressInterval, progress);
+        writer.out.write(SIGNATURE);
+        writer.out.writeInt(0); // flags
+        writer.out.writeInt(0); // header extension length
+        return writer;
+    }
+
+    public PgBinaryCopy startRow(int columns) throws IOException {
+        if (rows > 0 && rows % progressInterval == 0) {
+            progress.rowsWritten(table, rows, totalRows);
+        }
+        rows++;
+        out.writeShort(columns);
+        return this;
+    }
+
+    public PgBinaryCopy int8(Long value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.writeInt(8);
+        out.writeLong(value);
+        return this;
+    }
+
+    public PgBinaryCopy int4(int value) throws IOException {
+        out.writeInt(4);
+        out.writeInt(value);
+        return this;
+    }
+
+    public PgBinaryCopy text(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return this;
+    }
+
+    // timestamp without time zone: microseconds since 2000-01-01 (integer datetimes)
+    public PgBinaryCopy timestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+        return this;
+    }
+
+    /**
+     * numeric as base-10000 digit groups: ndigits, weight (power of 10000 of
+     * the first group), sign and display scale.
+     */
+    public PgBinaryCopy numeric(BigDecimal value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        String plain = value.abs().toPlainString();
+        int point = plain.indexOf('.');
+        String integer = point < 0 ? plain : plain.substring(0, point);
+        String fraction = point < 0 ? "" : plain.substring(point + 1);
+
+        integer = "0".repeat((4 - integer.length() % 4) % 4) + integer;
+        fraction = fraction + "0".repeat((4 - fraction.length() % 4) % 4);
+        String digits = integer + fraction;
+
+        int groups = digits.length() / 4;
+        int weight = integer.length() / 4 - 1;
+        int first = 0;
+        int last = groups - 1;
+        while (first <= last && digits.startsWith("0000", first * 4)) {
+            first++;
+            weight--;
+        }
+        while (last >= first && digits.startsWith("0000", last * 4)) {
+            last--;
+        }
+        int ndigits = last - first + 1;
+        if (ndigits == 0) {
+            weight = 0;
+        }
+
+        out.writeInt(8 + 2 * ndigits);
+        out.writeShort(ndigits);
+        out.writeShort(weight);
+        out.writeShort(value.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
+        out.writeShort(value.scale());
+        for (int g = first; g <= last; g++) {
+            out.writeShort(Integer.parseInt(digits, g * 4, g * 4 + 4, 10));
+        }
+        return this;
+    }
+
+    public PgBinaryCopy nullValue() throws IOException {
+        out.writeInt(-1);
+        return this;
+    }
+
+    /**
+     * Ends the COPY and returns the number of rows the server stored.
+     */
+    public long finish() throws IOException, SQLException {
+        out.writeShort(-1);
+        out.flush();
+        long stored = copy.endCopy();
+        progress.rowsWritten(table, stored, totalRows);
+        return stored;
+    }
+
+    // Aborts an unfinished COPY so the connection can be reused
+    @Override
+    public void close() throws SQLException {
+        if (copy.isActive()) {
+            copy.cancelCopy();
+        }
+    }
+}
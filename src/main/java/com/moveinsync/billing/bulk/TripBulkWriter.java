@@ -0,0 +1,179 @@
+package com.moveinsync.billing.bulk;
+
+import com.moveinsync.billing.dto.TripIngestDTO;
+import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.repository.EmployeeRepository;
+import com.moveinsync.billing.repository.TripRepository;
+import com.moveinsync.billing.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Bulk trip insert keyed by tripCode, run on the caller's transaction.
+ *
+ * On PostgreSQL the batch is streamed with binary COPY into a temporary
+ * staging table and merged into trips with a single INSERT ... SELECT:
+ * the last row per code inside the batch wins, and codes already stored
+ * are skipped (ON CONFLICT DO NOTHING), so replays are idempotent and a
+ * trip that may already be billed is never rewritten. Other databases get
+ * the entity path (existing-code lookup plus batched saveAll).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TripBulkWriter {
+
+    private static final String STAGING_DDL = "CREATE TEMP TABLE IF NOT EXISTS trip_staging (" +
+            "ordinal integer NOT NULL, id bigint NOT NULL, trip_code varchar(255) NOT NULL, " +
+            "vendor_id bigint NOT NULL, employee_id bigint NOT NULL, trip_date timestamp(6) NOT NULL, " +
+            "distance_km numeric(10,2) NOT NULL, duration_hours numeric(10,2) NOT NULL, " +
+            "source varchar(255), destination varchar(255)) ON COMMIT DELETE ROWS";
+    private static final String STAGING_COLUMNS = "ordinal, id, trip_code, vendor_id, employee_id, trip_date, " +
+            "distance_km, duration_hours, source, destination";
+    private static final String MERGE = "INSERT INTO trips (id, trip_code, vendor_id, employee_id, trip_date, " +
+            "distance_km, duration_hours, source, destination, processed, base_cost, vendor_incentive, " +
+            "employee_incentive, total_cost, created_at, updated_at) " +
+            "SELECT id, trip_code, vendor_id, employee_id, trip_date, distance_km, duration_hours, source, " +
+            "destination, false, 0, 0, 0, 0, now(), now() FROM (" +
+            "SELECT DISTINCT ON (trip_code) * FROM trip_staging ORDER BY trip_code, ordinal DESC) latest " +
+            "ON CONFLICT (trip_code) DO NOTHING RETURNING trip_code";
+    // Must match the sequence increment, see BaseEntity
+    private static final int ID_BLOCK = 50;
+
+    private final DataSource dataSource;
+    private final TripRepository tripRepository;
+    private final VendorRepository vendorRepository;
+    private final EmployeeRepository employeeRepository;
+
+    @Value("${billing.bulk.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    @Value("${billing.bulk.progress-interval-rows:100000}")
+    private long progressInterval;
+
+    public List<TripIngestDTO> insertNew(List<TripIngestDTO> trips) {
+        return insertNew(trips, BulkProgress.logTo(log));
+    }
+
+    /**
+     * Inserts trips whose code is not stored yet and returns them, in first
+     * occurrence order. Must run inside a transaction.
+     */
+    public List<TripIngestDTO> insertNew(List<TripIngestDTO> trips, BulkProgress progress) {
+        // Last write wins for a code repeated inside the batch
+        Map<String, TripIngestDTO> byCode = new LinkedHashMap<>();
+        for (TripIngestDTO trip : trips) {
+            byCode.put(trip.getTripCode(), trip);
+        }
+        if (byCode.isEmpty()) {
+            return List.of();
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (copyEnabled && connection.isWrapperFor(PGConnection.class)) {
+                byCode.keySet().retainAll(copyAndMerge(connection, trips, progress));
+                return new ArrayList<>(byCode.values());
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not bulk insert " + trips.size() + " trips", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        return saveEntities(byCode);
+    }
+
+    private Set<String> copyAndMerge(Connection connection, List<TripIngestDTO> trips, BulkProgress progress)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(STAGING_DDL);
+            // A failed earlier attempt in this transaction may have left rows behind
+            statement.execute("TRUNCATE trip_staging");
+        }
+
+        long[] ids = allocateIds(connection, trips.size());
+        try (PgBinaryCopy copy = PgBinaryCopy.open(connection.unwrap(PGConnection.class),
+                "trip_staging", STAGING_COLUMNS, trips.size(), progressInterval, progress)) {
+            for (int i = 0; i < trips.size(); i++) {
+                TripIngestDTO trip = trips.get(i);
+                copy.startRow(10)
+                        .int4(i)
+                        .int8(ids[i])
+                        .text(trip.getTripCode())
+                        .int8(trip.getVendorId())
+                        .int8(trip.getEmployeeId())
+                        .timestamp(trip.getTripDate())
+                        .numeric(trip.getDistanceKm())
+                        .numeric(trip.getDurationHours())
+                        .text(trip.getSource())
+                        .text(trip.getDestination());
+            }
+            copy.finish();
+        }
+
+        Set<String> inserted = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(MERGE)) {
+            while (rs.next()) {
+                inserted.add(rs.getString(1));
+            }
+        }
+        log.debug("Merged {} of {} staged trips", inserted.size(), trips.size());
+        return inserted;
+    }
+
+    /**
+     * Takes ids the way Hibernate's pooled optimizer does: each nextval v
+     * reserves (v - 49 .. v], so entity inserts and COPY never collide.
+     * The sequence's first value 1 reserves only id 1, since ids below 1
+     * would sit behind the keyset cursors' starting point of 0.
+     */
+    private static long[] allocateIds(Connection connection, int count) throws SQLException {
+        long[] ids = new long[count];
+        int next = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval('trip_seq') FROM generate_series(1, ?)")) {
+            while (next < count) {
+                statement.setInt(1, (count - next + ID_BLOCK - 1) / ID_BLOCK);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next() && next < count) {
+                        long hi = rs.getLong(1);
+                        for (long id = Math.max(1, hi - ID_BLOCK + 1); id <= hi && next < count; id++) {
+                            ids[next++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private List<TripIngestDTO> saveEntities(Map<String, TripIngestDTO> byCode) {
+        tripRepository.findExistingTripCodes(byCode.keySet()).forEach(byCode::remove);
+
+        List<Trip> trips = new ArrayList<>(byCode.size());
+        for (TripIngestDTO dto : byCode.values()) {
+            trips.add(Trip.builder()
+                    .tripCode(dto.getTripCode())
+                    .vendor(vendorRepository.getReferenceById(dto.getVendorId()))
+                    .employee(employeeRepository.getReferenceById(dto.getEmployeeId()))
+                    .tripDate(dto.getTripDate())
+                    .distanceKm(dto.getDistanceKm())
+                    .durationHours(dto.getDurationHours())
+                    .source(dto.getSource())
+                    .destination(dto.getDestination())
+                    .build());
+        }
+        tripRepository.saveAll(trips);
+        return new ArrayList<>(byCode.values());
+    }
+}
@@ -0,0 +1,303 @@
+package com.moveinsync.billing.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Broadcasts cache evictions between nodes over Postgres LISTEN/NOTIFY.
+ *
+ * Evictions are queued (after commit when a transaction is active), and a
+ * publisher thread sends them every flush interval as a few NOTIFY
+ * payloads: repeats of the same key collapse, and a pending clear of a
+ * cache swallows its single-key evictions. A listener thread on its own
+ * connection applies other nodes' messages to the local caches. After a
+ * lost listener connection all local caches are cleared, since messages
+ * sent in between are gone. Inactive unless the datasource is PostgreSQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    static final String CHANNEL = "billing_cache";
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final char CLEAR = '*';
+    private static final char STRING_KEY = 'S';
+    private static final char LONG_KEY = 'L';
+    private static final char INTEGER_KEY = 'I';
+
+    private final DataSource dataSource;
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${billing.cache.cluster-invalidation:true}")
+    private boolean enabled;
+
+    @Value("${billing.cache.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${billing.cache.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // Guarded by itself; insertion order keeps clears ahead of later key evictions
+    private final Set<Invalidation> pending = new LinkedHashSet<>();
+    private volatile CacheManager localCaches;
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread listener;
+
+    void attach(CacheManager localCaches) {
+        this.localCaches = localCaches;
+    }
+
+    /**
+     * Queues an eviction of {@code key}, or of the whole cache when key is
+     * null, for the other nodes.
+     */
+    void publish(String cacheName, Object key) {
+        if (!running) {
+            return;
+        }
+        Invalidation invalidation = Invalidation.of(cacheName, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Peers must not reload the old value before this transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(invalidation);
+                }
+            });
+        } else {
+            enqueue(invalidation);
+        }
+    }
+
+    @Override
+    public void start() {
+        String url = dataSourceProperties.determineUrl();
+        if (!enabled || url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Cluster cache invalidation disabled");
+            return;
+        }
+        running = true;
+        publisher = new Thread(this::publishLoop, "cache-invalidation-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread thread : new Thread[]{publisher, listener}) {
+            if (thread == null) {
+                continue;
+            }
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void enqueue(Invalidation invalidation) {
+        synchronized (pending) {
+            if (pending.contains(Invalidation.clear(invalidation.cache))) {
+                return;
+            }
+            if (invalidation.type == CLEAR) {
+                pending.removeIf(queued -> queued.cache.equals(invalidation.cache));
+            }
+            pending.add(invalidation);
+        }
+    }
+
+    private void publishLoop() {
+        List<Invalidation> batch = List.of();
+        while (running || !batch.isEmpty()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            synchronized (pending) {
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                send(batch);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Could not broadcast {} cache invalidations: {}", batch.size(), e.getMessage());
+                batch.forEach(this::enqueue);
+            }
+        }
+    }
+
+    private void send(List<Invalidation> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            StringBuilder payload = new StringBuilder(nodeId).append('\n');
+            int header = payload.length();
+            int bytes = header;
+            for (Invalidation invalidation : batch) {
+                String line = invalidation.encode();
+                int lineBytes = line.getBytes(StandardCharsets.UTF_8).length;
+                if (payload.length() > header && bytes + lineBytes > MAX_PAYLOAD_BYTES) {
+                    sendPayload(statement, payload);
+                    payload.setLength(header);
+                    bytes = header;
+                }
+                payload.append(line);
+                bytes += lineBytes;
+            }
+            sendPayload(statement, payload);
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    private static void sendPayload(PreparedStatement statement, CharSequence payload) throws SQLException {
+        statement.setString(1, CHANNEL);
+        statement.setString(2, payload.toString());
+        statement.execute();
+    }
+
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    log.info("Cache invalidation listener reconnected; clearing local caches");
+                    clearLocal();
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications((int) reconnectDelayMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                reconnecting = true;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(reconnectDelayMs));
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines.length == 0 || nodeId.equals(lines[0]) || localCaches == null) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            Invalidation invalidation = Invalidation.decode(lines[i]);
+            Cache cache = invalidation == null ? null : localCaches.getCache(invalidation.cache);
+            if (cache == null) {
+                continue;
+            }
+            if (invalidation.type == CLEAR) {
+                cache.clear();
+            } else {
+                cache.evict(invalidation.key());
+            }
+        }
+    }
+
+    private void clearLocal() {
+        CacheManager caches = localCaches;
+        if (caches == null) {
+            return;
+        }
+        for (String name : caches.getCacheNames()) {
+            Cache cache = caches.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * One eviction on the wire: {@code cache<TAB>type<TAB>key}. Keys of
+     * other types, or strings that would break the framing, are sent as a
+     * clear of the whole cache.
+     */
+    private record Invalidation(String cache, char type, String value) {
+
+        static Invalidation clear(String cache) {
+            return new Invalidation(cache, CLEAR, "");
+        }
+
+        static Invalidation of(String cache, Object key) {
+            if (key instanceof String s && s.indexOf('\t') < 0 && s.indexOf('\n') < 0) {
+                return new Invalidation(cache, STRING_KEY, s);
+            }
+            if (key instanceof Long l) {
+                return new Invalidation(cache, LONG_KEY, l.toString());
+            }
+            if (key instanceof Integer n) {
+                return new Invalidation(cache, INTEGER_KEY, n.toString());
+            }
+            return clear(cache);
+        }
+
+        static Invalidation decode(String line) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length != 3 || parts[1].length() != 1) {
+                return null;
+            }
+            return new Invalidation(parts[0], parts[1].charAt(0), parts[2]);
+        }
+
+        String encode() {
+            return cache + '\t' + type + '\t' + value + '\n';
+        }
+
+        Object key() {
+            return switch (type) {
+                case LONG_KEY -> Long.valueOf(value);
+                case INTEGER_KEY -> Integer.valueOf(value);
+                default -> value;
+            };
+        }
+    }
+}
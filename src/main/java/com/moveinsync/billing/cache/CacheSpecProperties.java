@@ -0,0 +1,31 @@
+package com.moveinsync.billing.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine specs (billing.cache.specs), keyed by cache name.
+ * Caches without an entry use spring.cache.caffeine.spec. The trip
+ * snapshot cache holds whole vendor-months, so it is bounded by the
+ * number of trips it holds instead of by entries.
+ */
+@Data
+@ConfigurationProperties(prefix = "billing.cache")
+public class CacheSpecProperties {
+
+    private Map<String, String> specs = new HashMap<>();
+
+    private TripSnapshots tripSnapshots = new TripSnapshots();
+
+    @Data
+    public static class TripSnapshots {
+
+        private long maxTrips = 1_000_000;
+
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+}
@@ -0,0 +1,81 @@
+package com.moveinsync.billing.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Local cache whose evictions are also broadcast to the other nodes.
+ * Reads and puts stay local; only invalidations travel.
+ */
+final class CoherentCache implements Cache {
+
+    private final Cache local;
+    private final CacheInvalidationBus bus;
+
+    CoherentCache(Cache local, CacheInvalidationBus bus) {
+        this.local = local;
+        this.bus = bus;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return local.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return local.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return local.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        bus.publish(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.evictIfPresent(key);
+        bus.publish(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        bus.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = local.invalidate();
+        bus.publish(getName(), null);
+        return present;
+    }
+}
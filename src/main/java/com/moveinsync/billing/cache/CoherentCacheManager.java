@@ -0,0 +1,41 @@
+package com.moveinsync.billing.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the node-local cache manager so every cache broadcasts its
+ * evictions through the {@link CacheInvalidationBus}.
+ */
+public class CoherentCacheManager implements CacheManager {
+
+    private final CacheManager local;
+    private final CacheInvalidationBus bus;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public CoherentCacheManager(CacheManager local, CacheInvalidationBus bus) {
+        this.local = local;
+        this.bus = bus;
+        bus.attach(local);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache localCache = local.getCache(name);
+        return localCache == null ? null
+                : caches.computeIfAbsent(name, key -> new CoherentCache(localCache, bus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return local.getCacheNames();
+    }
+}
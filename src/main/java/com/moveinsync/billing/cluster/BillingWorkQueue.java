@@ -0,0 +1,233 @@
+package com.moveinsync.billing.cluster;
+
+import com.moveinsync.billing.concurrency.DbBoundedExecutor;
+import com.moveinsync.billing.dto.WorkItemCountDTO;
+import com.moveinsync.billing.dto.WorkQueueStatusDTO;
+import com.moveinsync.billing.model.entity.BillingRecord;
+import com.moveinsync.billing.model.entity.BillingWorkItem;
+import com.moveinsync.billing.repository.BillingRecordRepository;
+import com.moveinsync.billing.repository.BillingWorkItemRepository;
+import com.moveinsync.billing.service.BillingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide month close over the billing_work_items table.
+ *
+ * Any node enqueues a month (one item per configured vendor); every node
+ * with billing.cluster.enabled polls for items, claims a few with
+ * FOR UPDATE SKIP LOCKED and bills them on the billing executor, renewing
+ * its leases by heartbeat. Heartbeats run on their own thread, so a long
+ * job on the shared scheduler can't let leases lapse. Items of a node that
+ * stops heartbeating become claimable again once their lease expires, until
+ * they have used up their attempts. A vendor is never billed twice
+ * even if a slow node outlives its lease: the billing write itself locks
+ * the vendor and re-checks for an existing record.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillingWorkQueue {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BillingWorkItemRepository workItemRepository;
+    private final BillingRecordRepository billingRecordRepository;
+    private final BillingService billingService;
+    private final DbBoundedExecutor billingExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${billing.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${billing.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${billing.cluster.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${billing.cluster.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${billing.cluster.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${billing.cluster.heartbeat-interval-ms:20000}")
+    private long heartbeatIntervalMs;
+
+    // Items this node holds a lease on
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private String nodeId;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        if (enabled) {
+            heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "billing-lease-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat,
+                    heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+            log.info("Billing work queue active on node {}", nodeId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues every configured vendor for the month and re-queues items that
+     * previously failed. Idempotent.
+     * @return number of newly queued items
+     */
+    public int enqueueMonth(int month, int year) {
+        Integer queued = transactionTemplate.execute(status -> {
+            int reset = workItemRepository.resetFailed(month, year);
+            if (reset > 0) {
+                log.info("Re-queued {} failed billing items for {}/{}", reset, month, year);
+            }
+            return workItemRepository.enqueueMonth(month, year);
+        });
+        log.info("Queued {} vendor billing items for {}/{}", queued, month, year);
+        return queued == null ? 0 : queued;
+    }
+
+    public WorkQueueStatusDTO getStatus(int month, int year) {
+        WorkQueueStatusDTO status = WorkQueueStatusDTO.builder().month(month).year(year).build();
+        for (WorkItemCountDTO count : workItemRepository.countByStatus(month, year)) {
+            switch (count.getStatus()) {
+                case PENDING -> status.setPending(count.getItems());
+                case CLAIMED -> status.setClaimed(count.getItems());
+                case DONE -> status.setDone(count.getItems());
+                case FAILED -> status.setFailed(count.getItems());
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Claims up to the free in-flight slots and starts billing them.
+     */
+    @Scheduled(fixedDelayString = "${billing.cluster.poll-interval-ms:5000}")
+    public void poll() {
+        int capacity = maxInFlight - inFlight.size();
+        if (!enabled || capacity <= 0) {
+            return;
+        }
+        List<BillingWorkItem> claimed = transactionTemplate.execute(status -> {
+            int failed = workItemRepository.failExpired(maxAttempts);
+            if (failed > 0) {
+                log.error("Failed {} billing items whose lease expired on every attempt", failed);
+            }
+            List<BillingWorkItem> items = workItemRepository.lockClaimable(capacity, maxAttempts);
+            if (!items.isEmpty()) {
+                workItemRepository.claim(items.stream().map(BillingWorkItem::getId).toList(), nodeId, leaseSeconds);
+            }
+            return items;
+        });
+        if (claimed == null) {
+            return;
+        }
+        for (BillingWorkItem item : claimed) {
+            if (item.getOwner() != null) {
+                log.warn("Reclaimed billing of vendor {} for {}/{} from node {} after lease expiry",
+                        item.getVendorId(), item.getBillingMonth(), item.getBillingYear(), item.getOwner());
+            }
+            inFlight.add(item.getId());
+            billingExecutor.submit(() -> {
+                run(item);
+                return null;
+            }).whenComplete((ignored, e) -> inFlight.remove(item.getId()));
+        }
+    }
+
+    /**
+     * Renews the leases of everything this node is still working on.
+     */
+    public void heartbeat() {
+        if (!enabled || inFlight.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(inFlight);
+        try {
+            Integer renewed = transactionTemplate.execute(
+                    status -> workItemRepository.heartbeat(ids, nodeId, leaseSeconds));
+            if (renewed != null && renewed < ids.size()) {
+                log.warn("Node {} lost {} of {} billing leases", nodeId, ids.size() - renewed, ids.size());
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task; try again next interval
+            log.error("Failed to renew billing leases of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void run(BillingWorkItem item) {
+        Long vendorId = item.getVendorId();
+        int month = item.getBillingMonth();
+        int year = item.getBillingYear();
+        try {
+            BillingRecord record = billingService.processBillingForVendor(vendorId, month, year);
+            finish(item, record == null ? null : record.getId());
+        } catch (RuntimeException e) {
+            // A previous owner may have committed the record before dying
+            Optional<BillingRecord> existing = billingRecordRepository
+                    .findByVendorIdAndBillingMonthAndBillingYear(vendorId, month, year);
+            if (existing.isPresent()) {
+                finish(item, existing.get().getId());
+                return;
+            }
+            log.error("Failed to process billing for vendor {}: {}", vendorId, e.getMessage());
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.execute(status -> workItemRepository.release(item.getId(), nodeId,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    maxAttempts));
+        }
+    }
+
+    private void finish(BillingWorkItem item, Long recordId) {
+        Integer updated = transactionTemplate.execute(
+                status -> workItemRepository.complete(item.getId(), nodeId, recordId));
+        if (updated == null || updated == 0) {
+            log.warn("Billing of vendor {} for {}/{} finished after node {} lost its lease",
+                    item.getVendorId(), item.getBillingMonth(), item.getBillingYear(), nodeId);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
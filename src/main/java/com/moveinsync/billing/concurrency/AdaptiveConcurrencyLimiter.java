@@ -0,0 +1,207 @@
+package com.moveinsync.billing.concurrency;
+
+import com.moveinsync.billing.dto.ConcurrencyLimitDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AIMD limit on concurrent per-vendor billing jobs, driven by the database.
+ * Jobs report the latency of their write transaction per written row; the
+ * limit grows by one per window of successful jobs while it is fully used,
+ * and shrinks by the backoff ratio (at most once per window) when recent
+ * latency exceeds the uncongested baseline by the tolerance, when threads
+ * are waiting for a batch pool connection, or when a job fails.
+ *
+ * Waiting uses a ReentrantLock so virtual threads don't pin.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    // Weight of a new sample in the recent latency average
+    private static final double RECENT_WEIGHT = 0.2;
+    // The baseline drops to any faster sample at once but creeps up slowly, so
+    // congestion can't become the new normal while the limit keeps growing
+    private static final double BASELINE_RISE_WEIGHT = 0.005;
+
+    private final HikariDataSource batchPool;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private double increaseCredit;
+    private int completionsSinceDecrease;
+    private double recentNanosPerRow = Double.NaN;
+    private double baselineNanosPerRow = Double.NaN;
+
+    public AdaptiveConcurrencyLimiter(BatchRoutingDataSource dataSource,
+                                      @Value("${billing.adaptive.enabled:true}") boolean enabled,
+                                      @Value("${billing.adaptive.min-limit:1}") int minLimit,
+                                      @Value("${billing.adaptive.max-limit:0}") int maxLimit,
+                                      @Value("${billing.adaptive.initial-limit:2}") int initialLimit,
+                                      @Value("${billing.adaptive.latency-tolerance:2.0}") double tolerance,
+                                      @Value("${billing.adaptive.backoff-ratio:0.75}") double backoffRatio,
+                                      @Value("${billing.execution.task-permits:4}") int taskPermits) {
+        this.batchPool = dataSource.getBatchPool();
+        this.enabled = enabled;
+        // More jobs than billing task permits would only queue inside the executor
+        int ceiling = Math.min(taskPermits, batchPool.getMaximumPoolSize());
+        this.maxLimit = Math.max(1, maxLimit > 0 ? Math.min(maxLimit, ceiling) : ceiling);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Runs a job once the in-flight count is below the current limit. A
+     * job that throws counts as an overload signal.
+     */
+    public <T> T call(Supplier<T> job) {
+        if (!enabled) {
+            return job.get();
+        }
+        acquire();
+        boolean failed = true;
+        try {
+            T result = job.get();
+            failed = false;
+            return result;
+        } finally {
+            release(failed);
+        }
+    }
+
+    /**
+     * Records the duration of one database write covering {@code rows} rows.
+     */
+    public void recordLatency(long nanos, int rows) {
+        if (!enabled) {
+            return;
+        }
+        double sample = (double) nanos / Math.max(1, rows);
+        int pending = pendingConnections();
+        lock.lock();
+        try {
+            if (Double.isNaN(baselineNanosPerRow)) {
+                baselineNanosPerRow = sample;
+                recentNanosPerRow = sample;
+            } else {
+                recentNanosPerRow += RECENT_WEIGHT * (sample - recentNanosPerRow);
+                baselineNanosPerRow = sample < baselineNanosPerRow ? sample
+                        : baselineNanosPerRow + BASELINE_RISE_WEIGHT * (sample - baselineNanosPerRow);
+            }
+            if (pending > 0 || recentNanosPerRow > tolerance * baselineNanosPerRow) {
+                decrease(pending > 0 ? "connection waiters" : "latency");
+            } else if (inFlight >= limit) {
+                increase();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConcurrencyLimitDTO getStatus() {
+        lock.lock();
+        try {
+            return ConcurrencyLimitDTO.builder()
+                    .enabled(enabled)
+                    .limit(limit)
+                    .inFlight(inFlight)
+                    .minLimit(minLimit)
+                    .maxLimit(maxLimit)
+                    .recentMicrosPerRow(Double.isNaN(recentNanosPerRow) ? null : recentNanosPerRow / 1000)
+                    .baselineMicrosPerRow(Double.isNaN(baselineNanosPerRow) ? null : baselineNanosPerRow / 1000)
+                    .pendingConnections(pendingConnections())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Upper bound of the limit: the most jobs that can ever run at once.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                slotFreed.await();
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a billing slot", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(boolean failed) {
+        lock.lock();
+        try {
+            inFlight--;
+            completionsSinceDecrease++;
+            if (failed) {
+                decrease("failed job");
+            }
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private void increase() {
+        increaseCredit += 1.0 / limit;
+        if (increaseCredit >= 1 && limit < maxLimit) {
+            increaseCredit = 0;
+            limit++;
+            log.debug("Billing concurrency limit raised to {}", limit);
+            slotFreed.signal();
+        }
+    }
+
+    // Callers hold the lock; one decrease per window of completions
+    private void decrease(String reason) {
+        increaseCredit = 0;
+        if (completionsSinceDecrease < limit || limit <= minLimit) {
+            return;
+        }
+        completionsSinceDecrease = 0;
+        limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        log.info("Billing concurrency limit lowered to {} ({})", limit, reason);
+    }
+
+    // Threads waiting for a connection of the pool billing jobs use
+    private int pendingConnections() {
+        HikariPoolMXBean pool = batchPool.getHikariPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+}
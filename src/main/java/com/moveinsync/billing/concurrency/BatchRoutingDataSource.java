@@ -0,0 +1,81 @@
+package com.moveinsync.billing.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The application's DataSource: connections come from the interactive pool
+ * unless the current thread is inside {@link #batch}, in which case they
+ * come from the batch pool. Billing runs and imports therefore can't take
+ * the connections API requests need, and each pool carries its own
+ * statement timeout and fetch size.
+ *
+ * The route is read when a transaction takes its connection, so it must
+ * be set before the transaction starts; work already inside a transaction
+ * keeps that transaction's connection.
+ */
+public class BatchRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String INTERACTIVE = "interactive";
+    private static final String BATCH = "batch";
+    private static final ThreadLocal<Boolean> BATCH_SCOPE = new ThreadLocal<>();
+
+    private final HikariDataSource interactivePool;
+    private final HikariDataSource batchPool;
+
+    /**
+     * @param batchPool null to run batch work on the interactive pool
+     */
+    public BatchRoutingDataSource(HikariDataSource interactivePool, HikariDataSource batchPool) {
+        this.interactivePool = interactivePool;
+        this.batchPool = batchPool != null ? batchPool : interactivePool;
+        setTargetDataSources(Map.of(INTERACTIVE, interactivePool, BATCH, this.batchPool));
+        setDefaultTargetDataSource(interactivePool);
+    }
+
+    /**
+     * Runs {@code work} with every connection it opens taken from the batch pool.
+     */
+    public static <T> T batch(Supplier<T> work) {
+        if (isBatch()) {
+            return work.get();
+        }
+        BATCH_SCOPE.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            BATCH_SCOPE.remove();
+        }
+    }
+
+    public static void batch(Runnable work) {
+        batch(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isBatch() {
+        return BATCH_SCOPE.get() != null;
+    }
+
+    public HikariDataSource getInteractivePool() {
+        return interactivePool;
+    }
+
+    public HikariDataSource getBatchPool() {
+        return batchPool;
+    }
+
+    public boolean hasSeparateBatchPool() {
+        return batchPool != interactivePool;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isBatch() ? BATCH : INTERACTIVE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.moveinsync.billing.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executor for database-bound tasks.
+ * Every task holds a permit while it runs, and the permits are sized from the
+ * batch Hikari pool that submitted tasks draw from. With virtual threads the
+ * waiting happens on the semaphore (cheap parking) instead of inside Hikari's
+ * connection queue, where it would count against connection-timeout.
+ */
+@Slf4j
+public class DbBoundedExecutor implements AutoCloseable {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final boolean virtual;
+
+    public DbBoundedExecutor(Executor delegate, int permits, boolean virtual) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(permits, true);
+        this.virtual = virtual;
+    }
+
+    /**
+     * Runs the task on the executor under a permit, with its connections
+     * taken from the batch pool.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> BatchRoutingDataSource.batch(() -> {
+            try {
+                return call(task::get);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }), delegate);
+    }
+
+    /**
+     * Runs the task on the calling thread under a permit.
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        permits.acquire();
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Shuts a pooled delegate down, or closes a per-task one (which waits
+     * for its running tasks up to its own termination timeout).
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof ExecutorService pool) {
+            pool.shutdown();
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Billing executor did not terminate within 30s");
+                pool.shutdownNow();
+            }
+        } else if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
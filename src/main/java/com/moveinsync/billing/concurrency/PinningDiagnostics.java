@@ -0,0 +1,57 @@
+package com.moveinsync.billing.concurrency;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events and logs the frame that
+ * pinned the carrier, typically a {@code synchronized} block in the JDBC
+ * driver or connection pool. Events are only emitted on JDK 21+; on older
+ * JVMs the recording simply stays empty.
+ */
+@Slf4j
+public class PinningDiagnostics implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final RecordingStream stream;
+
+    public PinningDiagnostics(Duration threshold) {
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::logPinned);
+    }
+
+    public void start() {
+        stream.startAsync();
+        log.info("Virtual thread pinning diagnostics enabled");
+    }
+
+    private void logPinned(RecordedEvent event) {
+        StringBuilder frames = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> stack = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(LOGGED_FRAMES, stack.size()); i++) {
+                RecordedFrame frame = stack.get(i);
+                frames.append("\n    at ")
+                        .append(frame.getMethod().getType().getName())
+                        .append('.')
+                        .append(frame.getMethod().getName())
+                        .append(':')
+                        .append(frame.getLineNumber());
+            }
+        }
+        log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), frames);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
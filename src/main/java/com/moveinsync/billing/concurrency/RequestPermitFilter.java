@@ -0,0 +1,53 @@
+package com.moveinsync.billing.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent API requests when Tomcat runs on virtual threads.
+ * Without Tomcat's worker limit every request would go straight to Hikari;
+ * this keeps the queue in front of the pool and sheds load with a 503 once a
+ * request has waited longer than the timeout.
+ */
+public class RequestPermitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+
+    public RequestPermitFilter(int permits, long timeoutMs) {
+        this.permits = new Semaphore(permits, true);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry later");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.moveinsync.billing.concurrency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moveinsync.billing.exception.TooManyRequestsException;
+import com.moveinsync.billing.model.entity.User;
+import com.moveinsync.billing.model.enums.Role;
+import com.moveinsync.billing.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Per-tenant bulkheads and token buckets in front of the report endpoints.
+ * The tenant is the vendor of a VENDOR user and the client of anyone else,
+ * falling back to the user itself. Refusals are immediate 429s with
+ * Retry-After, so a tenant over its limit never queues on the Hikari pool.
+ */
+@Component
+@Slf4j
+public class TenantLimitInterceptor implements HandlerInterceptor {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final String LIMITER_ATTRIBUTE = TenantLimitInterceptor.class.getName() + ".limiter";
+
+    private final TenantLimitProperties properties;
+    private final UserRepository userRepository;
+    private final Semaphore total;
+    private final Map<String, TenantLimiter> limiters = new ConcurrentHashMap<>();
+    // Resolved here rather than per request so rejecting needs no connection
+    private final Cache<String, Tenant> tenants = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    public TenantLimitInterceptor(TenantLimitProperties properties, UserRepository userRepository) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.total = new Semaphore(Math.max(1, properties.getMaxConcurrentTotal()));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return true;
+        }
+        Tenant tenant = tenants.get(authentication.getName(), this::resolve);
+        if (tenant == null) {
+            return true;
+        }
+        TenantLimiter limiter = limiters.computeIfAbsent(tenant.key,
+                key -> new TenantLimiter(properties.limitFor(key, tenant.role)));
+
+        if (!total.tryAcquire()) {
+            throw reject(tenant, "Report capacity exhausted, retry later", 1);
+        }
+        if (!limiter.tryEnter()) {
+            total.release();
+            throw reject(tenant, "Too many concurrent reports for " + tenant.key, 1);
+        }
+        long waitNanos = limiter.tryTakeToken();
+        if (waitNanos > 0) {
+            limiter.exit();
+            total.release();
+            throw reject(tenant, "Report rate limit exceeded for " + tenant.key,
+                    (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter != null) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            ((TenantLimiter) limiter).exit();
+            total.release();
+        }
+    }
+
+    private Tenant resolve(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        String key;
+        if (user.getRole() == Role.VENDOR && user.getVendorId() != null) {
+            key = "vendor-" + user.getVendorId();
+        } else if (user.getClientId() != null) {
+            key = "client-" + user.getClientId();
+        } else {
+            key = "user-" + user.getUsername();
+        }
+        return new Tenant(key, user.getRole());
+    }
+
+    private static TooManyRequestsException reject(Tenant tenant, String message, long retryAfterSeconds) {
+        log.debug("Rejected report request of {}: {}", tenant.key, message);
+        return new TooManyRequestsException(message, retryAfterSeconds);
+    }
+
+    private record Tenant(String key, Role role) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.moveinsync.billing.concurrency;
+
+import com.moveinsync.billing.model.enums.Role;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Report endpoint limits (billing.report-limits). A tenant's limit is its
+ * entry under tenants (keys like client-3 or vendor-7), else the entry of
+ * the user's role, else fallback.
+ */
+@Data
+@ConfigurationProperties(prefix = "billing.report-limits")
+public class TenantLimitProperties {
+
+    private boolean enabled = true;
+
+    // Report requests in flight across all tenants, so reports can't take the whole Hikari pool
+    private int maxConcurrentTotal = 6;
+
+    private Map<Role, Limit> roles = new EnumMap<>(Role.class);
+
+    private Map<String, Limit> tenants = new HashMap<>();
+
+    private Limit fallback = new Limit();
+
+    public Limit limitFor(String tenantKey, Role role) {
+        Limit limit = tenants.get(tenantKey);
+        if (limit == null) {
+            limit = roles.get(role);
+        }
+        return limit != null ? limit : fallback;
+    }
+
+    @Data
+    public static class Limit {
+        private int maxConcurrent = 2;
+        // Token bucket refill rate; 0 disables rate limiting for the tenant
+        private double requestsPerSecond = 5;
+        private int burst = 10;
+    }
+}
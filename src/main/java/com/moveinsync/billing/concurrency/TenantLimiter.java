@@ -0,0 +1,52 @@
+package com.moveinsync.billing.concurrency;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulkhead and token bucket of one tenant. Neither ever waits: callers get
+ * an immediate answer and turn a refusal into a 429.
+ */
+final class TenantLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Semaphore bulkhead;
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TenantLimiter(TenantLimitProperties.Limit limit) {
+        this.bulkhead = new Semaphore(Math.max(1, limit.getMaxConcurrent()));
+        this.tokensPerNano = limit.getRequestsPerSecond() / NANOS_PER_SECOND;
+        this.capacity = Math.max(1, limit.getBurst());
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    boolean tryEnter() {
+        return bulkhead.tryAcquire();
+    }
+
+    void exit() {
+        bulkhead.release();
+    }
+
+    /**
+     * Takes one token, returning 0, or leaves the bucket unchanged and
+     * returns the nanoseconds until a token will be available.
+     */
+    synchronized long tryTakeToken() {
+        if (tokensPerNano <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,48 @@
+package com.moveinsync.billing.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moveinsync.billing.cache.CacheInvalidationBus;
+import com.moveinsync.billing.cache.CacheSpecProperties;
+import com.moveinsync.billing.cache.CoherentCacheManager;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Caffeine caches per node, kept coherent across the cluster by
+ * broadcasting evictions (see {@link CacheInvalidationBus}). Broadcasting
+ * only helps caches that are evicted on every write, so only those get a
+ * long TTL through billing.cache.specs; the rest keep the short default.
+ */
+@Configuration
+@EnableConfigurationProperties({CacheProperties.class, CacheSpecProperties.class})
+public class CacheConfig {
+
+    public static final String TRIP_SNAPSHOTS = "tripSnapshots";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties, CacheSpecProperties specProperties,
+                                     CacheInvalidationBus invalidationBus) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        String spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            caffeine.setCacheSpecification(spec);
+        }
+        specProperties.getSpecs().forEach((name, cacheSpec) ->
+                caffeine.registerCustomCache(name, Caffeine.from(cacheSpec).build()));
+
+        CacheSpecProperties.TripSnapshots snapshots = specProperties.getTripSnapshots();
+        caffeine.registerCustomCache(TRIP_SNAPSHOTS, Caffeine.newBuilder()
+                .maximumWeight(snapshots.getMaxTrips())
+                .weigher((Object key, Object value) -> value instanceof List<?> trips ? trips.size() + 1 : 1)
+                .expireAfterWrite(snapshots.getExpireAfterWrite())
+                .build());
+        return new CoherentCacheManager(caffeine, invalidationBus);
+    }
+}
@@ -0,0 +1,67 @@
+package com.moveinsync.billing.config;
+
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.jdbc.InstrumentedDataSource;
+import com.moveinsync.billing.jdbc.QueryRecorder;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Two Hikari pools on the same database behind one routing DataSource, so
+ * JPA, repositories and the JDBC writers stay shared while billing runs and
+ * imports draw from their own pool. The interactive pool is configured under
+ * spring.datasource.hikari as before; the batch pool under
+ * billing.batch-datasource.hikari. Connection settings (url, credentials)
+ * come from spring.datasource for both. The DataSource the application sees
+ * times every statement (see {@link InstrumentedDataSource}).
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "billing.batch-datasource.enabled", havingValue = "true", matchIfMissing = true)
+    @ConfigurationProperties("billing.batch-datasource.hikari")
+    public HikariDataSource batchDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public BatchRoutingDataSource routingDataSource(
+            @Qualifier("interactiveDataSource") HikariDataSource interactive,
+            @Qualifier("batchDataSource") ObjectProvider<HikariDataSource> batch) {
+        BatchRoutingDataSource routing = new BatchRoutingDataSource(interactive, batch.getIfAvailable());
+        if (routing.hasSeparateBatchPool()) {
+            log.info("Batch work uses its own pool of {} connections; {} remain for requests",
+                    routing.getBatchPool().getMaximumPoolSize(), interactive.getMaximumPoolSize());
+        } else {
+            log.info("Batch work shares the interactive connection pool");
+        }
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(BatchRoutingDataSource routing, QueryRecorder recorder,
+                                 @Value("${billing.sql-stats.enabled:true}") boolean instrumented) {
+        return instrumented ? new InstrumentedDataSource(routing, recorder) : new DelegatingDataSource(routing);
+    }
+}
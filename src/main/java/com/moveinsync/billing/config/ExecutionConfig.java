@@ -0,0 +1,80 @@
+package com.moveinsync.billing.config;
+
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.concurrency.DbBoundedExecutor;
+import com.moveinsync.billing.concurrency.PinningDiagnostics;
+import com.moveinsync.billing.concurrency.RequestPermitFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Thread model for request handling and billing fan-out.
+ * Platform threads are the default. Boot's spring.threads.virtual.enabled
+ * (honoured on JDK 21+) runs Tomcat requests on virtual threads, and billing
+ * tasks follow it here, with semaphores sized from the Hikari pools standing
+ * in for the thread-count limit. Billing tasks are sized from the batch pool
+ * and requests from the interactive pool (see {@link DataSourceConfig}).
+ */
+@Configuration
+@Slf4j
+public class ExecutionConfig {
+
+    @Value("${billing.execution.task-permits:4}")
+    private int taskPermits;
+
+    @Value("${billing.execution.platform-threads:4}")
+    private int platformThreads;
+
+    @Bean(destroyMethod = "close")
+    public DbBoundedExecutor billingExecutor(BatchRoutingDataSource dataSource, Environment environment) {
+        int permits = Math.min(taskPermits, dataSource.getBatchPool().getMaximumPoolSize());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("billing-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(30_000);
+            log.info("Billing tasks run on virtual threads with {} DB permits", permits);
+            return new DbBoundedExecutor(executor, permits, true);
+        }
+        log.info("Billing tasks run on {} platform threads with {} DB permits", platformThreads, permits);
+        return new DbBoundedExecutor(Executors.newFixedThreadPool(platformThreads), permits, false);
+    }
+
+    /**
+     * Request admission limit used once Tomcat's thread cap is gone. When
+     * batch work shares the interactive pool, billing task permits are
+     * subtracted so a month close can't be starved by API traffic.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<RequestPermitFilter> requestPermitFilter(
+            BatchRoutingDataSource dataSource,
+            @Value("${billing.execution.request-permit-timeout-ms:2000}") long timeoutMs) {
+        int connectionPoolSize = dataSource.getInteractivePool().getMaximumPoolSize();
+        int permits = dataSource.hasSeparateBatchPool() ? connectionPoolSize
+                : Math.max(1, connectionPoolSize - Math.min(taskPermits, connectionPoolSize));
+        FilterRegistrationBean<RequestPermitFilter> registration =
+                new FilterRegistrationBean<>(new RequestPermitFilter(permits, timeoutMs));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "billing.execution.pinning-diagnostics", havingValue = "true")
+    public PinningDiagnostics pinningDiagnostics(
+            @Value("${billing.execution.pinning-threshold-ms:20}") long thresholdMs) {
+        return new PinningDiagnostics(Duration.ofMillis(thresholdMs));
+    }
+}
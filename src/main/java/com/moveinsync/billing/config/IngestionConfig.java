@@ -0,0 +1,28 @@
+package com.moveinsync.billing.config;
+
+import com.moveinsync.billing.ingestion.TripRingBuffer;
+import com.moveinsync.billing.ingestion.TripWriteAheadLog;
+import com.moveinsync.billing.ingestion.WalEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class IngestionConfig {
+
+    @Bean
+    public TripRingBuffer<WalEntry> tripRingBuffer(
+            @Value("${billing.ingestion.buffer-capacity:65536}") int capacity) {
+        return new TripRingBuffer<>(capacity);
+    }
+
+    // Opened (and replayed) by TripBatchWriter on start, closed on stop
+    @Bean(destroyMethod = "")
+    public TripWriteAheadLog tripWriteAheadLog(
+            @Value("${billing.ingestion.wal-dir:./data/wal}") String directory,
+            @Value("${billing.ingestion.segment-size-mb:64}") int segmentSizeMb) {
+        return new TripWriteAheadLog(Path.of(directory), segmentSizeMb * 1024 * 1024);
+    }
+}
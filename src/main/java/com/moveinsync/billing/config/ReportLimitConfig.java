@@ -0,0 +1,22 @@
+package com.moveinsync.billing.config;
+
+import com.moveinsync.billing.concurrency.TenantLimitInterceptor;
+import com.moveinsync.billing.concurrency.TenantLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(TenantLimitProperties.class)
+@RequiredArgsConstructor
+public class ReportLimitConfig implements WebMvcConfigurer {
+
+    private final TenantLimitInterceptor tenantLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tenantLimitInterceptor).addPathPatterns("/api/reports/**");
+    }
+}
@@ -0,0 +1,28 @@
+package com.moveinsync.billing.config;
+
+import com.moveinsync.billing.jdbc.QueryRecorder;
+import com.moveinsync.billing.jdbc.ServerTimingFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "billing.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    /**
+     * Runs just inside the request permit filter, so time spent waiting for
+     * a permit isn't attributed to the request, but the security filters'
+     * user lookups are.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(QueryRecorder recorder) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(recorder));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -1,7 +1,17 @@
 package com.moveinsync.billing.controller;
 
+import com.moveinsync.billing.cluster.BillingWorkQueue;
+import com.moveinsync.billing.concurrency.AdaptiveConcurrencyLimiter;
+import com.moveinsync.billing.dto.ConcurrencyLimitDTO;
+import com.moveinsync.billing.dto.KeysetPageDTO;
+import com.moveinsync.billing.dto.SimulationRequestDTO;
+import com.moveinsync.billing.dto.SimulationResultDTO;
+import com.moveinsync.billing.dto.WorkQueueStatusDTO;
+import com.moveinsync.billing.model.entity.BillingLineItem;
 import com.moveinsync.billing.model.entity.BillingRecord;
 import com.moveinsync.billing.service.BillingService;
+import com.moveinsync.billing.service.BillingSimulationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,6 +24,9 @@ import org.springframework.web.bind.annotation.*;
 public class BillingController {
 
     private final BillingService billingService;
+    private final BillingSimulationService simulationService;
+    private final BillingWorkQueue workQueue;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     @PostMapping("/process/{vendorId}")
     public ResponseEntity<BillingRecord> processBilling(
@@ -24,11 +37,50 @@ public class BillingController {
         return ResponseEntity.ok(record);
     }
 
+    @GetMapping("/records/{recordId}/line-items")
+    public ResponseEntity<KeysetPageDTO<BillingLineItem>> getLineItems(
+            @PathVariable Long recordId,
+            @RequestParam(required = false) Long afterTripId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(billingService.getLineItemPage(recordId, afterTripId, size));
+    }
+
     @PostMapping("/process-all")
     public ResponseEntity<String> processAllBilling(
             @RequestParam int month,
             @RequestParam int year) {
+        if (workQueue.isEnabled()) {
+            // Every node of the cluster picks up part of the month
+            int queued = workQueue.enqueueMonth(month, year);
+            return ResponseEntity.accepted().body("Queued " + queued + " vendors for billing");
+        }
         billingService.processBillingForAllVendors(month, year);
         return ResponseEntity.ok("Billing processed for all vendors");
     }
+
+    @GetMapping("/queue")
+    public ResponseEntity<WorkQueueStatusDTO> getQueueStatus(
+            @RequestParam int month,
+            @RequestParam int year) {
+        return ResponseEntity.ok(workQueue.getStatus(month, year));
+    }
+
+    @GetMapping("/concurrency")
+    public ResponseEntity<ConcurrencyLimitDTO> getConcurrencyLimit() {
+        return ResponseEntity.ok(concurrencyLimiter.getStatus());
+    }
+
+    @PutMapping(value = "/config/{vendorId}/incentive-rules", consumes = "text/plain")
+    public ResponseEntity<String> updateIncentiveRules(
+            @PathVariable Long vendorId,
+            @RequestBody(required = false) String rules) {
+        billingService.updateIncentiveRules(vendorId, rules);
+        return ResponseEntity.ok("Incentive rules updated for vendor " + vendorId);
+    }
+
+    @PostMapping("/simulate")
+    public ResponseEntity<SimulationResultDTO> simulateBilling(
+            @Valid @RequestBody SimulationRequestDTO request) {
+        return ResponseEntity.ok(simulationService.simulate(request));
+    }
 }
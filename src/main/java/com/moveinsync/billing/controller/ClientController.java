@@ -1,6 +1,7 @@
 package com.moveinsync.billing.controller;
 
 import com.moveinsync.billing.dto.ClientDTO;
+import com.moveinsync.billing.dto.KeysetPageDTO;
 import com.moveinsync.billing.service.ClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,13 @@ public class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPageDTO<ClientDTO>> getClientPage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(clientService.getClientPage(afterId, size));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ClientDTO> updateClient(
             @PathVariable Long id,
@@ -1,7 +1,10 @@
 package com.moveinsync.billing.controller;
 
+import com.moveinsync.billing.dto.EmployeeSummaryDTO;
+import com.moveinsync.billing.dto.KeysetPageDTO;
 import com.moveinsync.billing.model.entity.Employee;
 import com.moveinsync.billing.repository.EmployeeRepository;
+import com.moveinsync.billing.service.EmployeeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +19,7 @@ import java.util.List;
 public class EmployeeController {
 
     private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
 
     @GetMapping
     public ResponseEntity<List<Employee>> getAllEmployees() {
@@ -23,6 +27,13 @@ public class EmployeeController {
         return ResponseEntity.ok(employees);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPageDTO<EmployeeSummaryDTO>> getEmployeePage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(employeeService.getEmployeePage(afterId, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Employee> getEmployee(@PathVariable Long id) {
         return employeeRepository.findById(id)
@@ -1,20 +1,34 @@
 package com.moveinsync.billing.controller;
 
+import com.moveinsync.billing.analytics.AnalyticsScope;
+import com.moveinsync.billing.analytics.RouteAnalyticsService;
+import com.moveinsync.billing.analytics.TripDistributionService;
 import com.moveinsync.billing.dto.ClientReportDTO;
 import com.moveinsync.billing.dto.EmployeeIncentiveDTO;
+import com.moveinsync.billing.dto.PercentileReportDTO;
+import com.moveinsync.billing.dto.TopRoutesReportDTO;
+import com.moveinsync.billing.dto.TripOverlapReportDTO;
 import com.moveinsync.billing.dto.VendorReportDTO;
+import com.moveinsync.billing.model.entity.ProvisionalBilling;
+import com.moveinsync.billing.service.ProvisionalBillingService;
 import com.moveinsync.billing.service.ReportService;
 import com.moveinsync.billing.model.entity.User;
 import com.moveinsync.billing.model.enums.Role;
 import com.moveinsync.billing.repository.UserRepository;
+import com.moveinsync.billing.validation.TripOverlapValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/reports")
@@ -23,6 +37,10 @@ public class ReportController {
 
     private final ReportService reportService;
     private final UserRepository userRepository;
+    private final TripOverlapValidator overlapValidator;
+    private final RouteAnalyticsService routeAnalytics;
+    private final TripDistributionService tripDistributions;
+    private final ProvisionalBillingService provisionalBilling;
 
     @GetMapping("/client/{clientId}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -34,6 +52,120 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    @GetMapping("/overlaps")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TripOverlapReportDTO> getOverlapReport(
+            @RequestParam int month,
+            @RequestParam int year) {
+        return ResponseEntity.ok(overlapValidator.generateMonthlyReport(month, year));
+    }
+
+    @GetMapping("/routes/client/{clientId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TopRoutesReportDTO> getClientTopRoutes(
+            @PathVariable Long clientId,
+            @RequestParam int month,
+            @RequestParam int year,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(routeAnalytics.topRoutes(
+                AnalyticsScope.CLIENT, clientId, month, year, limit));
+    }
+
+    @GetMapping("/routes/vendor/{vendorId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'VENDOR')")
+    public ResponseEntity<TopRoutesReportDTO> getVendorTopRoutes(
+            @PathVariable Long vendorId,
+            @RequestParam int month,
+            @RequestParam int year,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (user.getRole() == Role.VENDOR &&
+                !vendorId.equals(user.getVendorId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(routeAnalytics.topRoutes(
+                AnalyticsScope.VENDOR, vendorId, month, year, limit));
+    }
+
+    @GetMapping("/percentiles/client/{clientId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PercentileReportDTO> getClientPercentiles(
+            @PathVariable Long clientId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(tripDistributions.percentiles(AnalyticsScope.CLIENT, clientId, from, to));
+    }
+
+    @GetMapping("/percentiles/vendor/{vendorId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'VENDOR')")
+    public ResponseEntity<PercentileReportDTO> getVendorPercentiles(
+            @PathVariable Long vendorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (user.getRole() == Role.VENDOR &&
+                !vendorId.equals(user.getVendorId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(tripDistributions.percentiles(AnalyticsScope.VENDOR, vendorId, from, to));
+    }
+
+    @PostMapping("/percentiles/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildPercentiles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = tripDistributions.rebuild(from, to);
+        return ResponseEntity.ok(Map.of("vendorDays", days));
+    }
+
+    @GetMapping("/provisional")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProvisionalBilling>> getProvisionalBilling(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(provisionalBilling.getSnapshots(asOf));
+    }
+
+    @GetMapping("/provisional/vendor/{vendorId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'VENDOR')")
+    public ResponseEntity<List<ProvisionalBilling>> getVendorProvisionalBilling(
+            @PathVariable Long vendorId,
+            @RequestParam int month,
+            @RequestParam int year,
+            Authentication authentication) {
+
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (user.getRole() == Role.VENDOR &&
+                !vendorId.equals(user.getVendorId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(provisionalBilling.getVendorHistory(vendorId, month, year));
+    }
+
+    @PostMapping("/provisional/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runProvisionalBilling(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        Integer vendors = provisionalBilling.run(asOf, true);
+        if (vendors == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(Map.of("vendors", vendors));
+    }
+
     @GetMapping("/vendor/{vendorId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'VENDOR')")
     public ResponseEntity<VendorReportDTO> getVendorReport(
@@ -0,0 +1,28 @@
+package com.moveinsync.billing.controller;
+
+import com.moveinsync.billing.dto.SqlStatsDTO;
+import com.moveinsync.billing.jdbc.QueryRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/sql-stats")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class SqlStatsController {
+
+    private final QueryRecorder queryRecorder;
+
+    @GetMapping
+    public ResponseEntity<SqlStatsDTO> getSqlStats() {
+        return ResponseEntity.ok(queryRecorder.getStats());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> resetSqlStats() {
+        queryRecorder.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
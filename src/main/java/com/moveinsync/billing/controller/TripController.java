@@ -1,9 +1,17 @@
 package com.moveinsync.billing.controller;
 
+import com.moveinsync.billing.dto.DuplicateTripDTO;
+import com.moveinsync.billing.dto.IngestionResultDTO;
+import com.moveinsync.billing.dto.TripIngestDTO;
+import com.moveinsync.billing.ingestion.TripDuplicateDetector;
+import com.moveinsync.billing.ingestion.TripIngestionService;
 import com.moveinsync.billing.model.entity.Trip;
 import com.moveinsync.billing.repository.TripRepository;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,9 +21,12 @@ import java.util.List;
 @RequestMapping("/api/admin/trips")
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
+@Validated
 public class TripController {
 
     private final TripRepository tripRepository;
+    private final TripIngestionService ingestionService;
+    private final TripDuplicateDetector duplicateDetector;
 
     @GetMapping
     public ResponseEntity<List<Trip>> getAllTrips() {
@@ -23,6 +34,23 @@ public class TripController {
         return ResponseEntity.ok(trips);
     }
 
+    @PostMapping("/ingest")
+    public ResponseEntity<IngestionResultDTO> ingestTrips(
+            @RequestBody List<@Valid TripIngestDTO> trips) {
+        IngestionResultDTO result = ingestionService.ingest(trips);
+        return new ResponseEntity<>(result, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Acknowledged trips skipped when written because their code was already
+     * stored (e.g. by another node), after the given WAL sequence.
+     */
+    @GetMapping("/ingest/duplicates")
+    public ResponseEntity<List<DuplicateTripDTO>> getStoredDuplicates(
+            @RequestParam(defaultValue = "0") long afterSequence) {
+        return ResponseEntity.ok(duplicateDetector.storedDuplicatesAfter(afterSequence));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Trip> getTrip(@PathVariable Long id) {
         return tripRepository.findById(id)
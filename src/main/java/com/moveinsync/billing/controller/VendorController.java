@@ -1,7 +1,10 @@
 package com.moveinsync.billing.controller;
 
+import com.moveinsync.billing.dto.KeysetPageDTO;
+import com.moveinsync.billing.dto.VendorSummaryDTO;
 import com.moveinsync.billing.model.entity.Vendor;
 import com.moveinsync.billing.repository.VendorRepository;
+import com.moveinsync.billing.service.VendorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +19,7 @@ import java.util.List;
 public class VendorController {
 
     private final VendorRepository vendorRepository;
+    private final VendorService vendorService;
 
     @GetMapping
     public ResponseEntity<List<Vendor>> getAllVendors() {
@@ -23,6 +27,13 @@ public class VendorController {
         return ResponseEntity.ok(vendors);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPageDTO<VendorSummaryDTO>> getVendorPage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(vendorService.getVendorPage(afterId, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Vendor> getVendor(@PathVariable Long id) {
         return vendorRepository.findById(id)
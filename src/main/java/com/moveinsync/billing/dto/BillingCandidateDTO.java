@@ -0,0 +1,29 @@
+package com.moveinsync.billing.dto;
+
+import com.moveinsync.billing.model.enums.BillingModelType;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Candidate rate configuration for a what-if simulation.
+ * Any field left null falls back to the vendor's current configuration.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingCandidateDTO {
+    private String label;
+    private BillingModelType billingModelType;
+    private BigDecimal fixedMonthlyCost;
+    private Integer includedTrips;
+    private BigDecimal includedKilometers;
+    private BigDecimal costPerTrip;
+    private BigDecimal costPerKilometer;
+    private BigDecimal extraKilometerRate;
+    private BigDecimal extraHourRate;
+    private BigDecimal standardKilometersPerTrip;
+    private BigDecimal standardHoursPerTrip;
+    private String incentiveRules;
+}
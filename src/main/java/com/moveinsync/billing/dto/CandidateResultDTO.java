@@ -0,0 +1,19 @@
+package com.moveinsync.billing.dto;
+
+import com.moveinsync.billing.model.enums.BillingModelType;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateResultDTO {
+    private String label;
+    private BillingModelType billingModelType;
+    private List<BigDecimal> monthlyAmounts;
+    private BigDecimal totalAmount;
+    private BigDecimal differenceFromCurrent;
+}
@@ -0,0 +1,22 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * Current adaptive limit on concurrent per-vendor billing jobs and the
+ * signals it follows.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConcurrencyLimitDTO {
+    private boolean enabled;
+    private int limit;
+    private int inFlight;
+    private int minLimit;
+    private int maxLimit;
+    private Double recentMicrosPerRow;
+    private Double baselineMicrosPerRow;
+    private int pendingConnections;
+}
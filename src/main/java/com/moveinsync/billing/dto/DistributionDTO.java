@@ -0,0 +1,19 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Percentiles of one trip measure; each is within the report's relativeError.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionDTO {
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+    private BigDecimal max;
+}
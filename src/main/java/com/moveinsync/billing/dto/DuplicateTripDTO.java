@@ -0,0 +1,20 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * A submitted trip that was skipped as a duplicate.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateTripDTO {
+    // Position of the trip in the submitted batch; null when found at write time
+    private Integer index;
+    // WAL sequence of an acknowledged trip found to be stored already when it was written
+    private Long sequence;
+    private String tripCode;
+    // EXISTS, PENDING or DUPLICATE_IN_BATCH
+    private String reason;
+}
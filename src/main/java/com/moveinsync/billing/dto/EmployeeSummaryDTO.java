@@ -0,0 +1,20 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * Flat employee row for list endpoints, populated by a projection query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSummaryDTO {
+    private Long id;
+    private String employeeCode;
+    private String name;
+    private String email;
+    private String phone;
+    private Boolean active;
+    private Long clientId;
+}
@@ -0,0 +1,21 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * Database work of one endpoint since startup (or the last reset).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointSqlStatsDTO {
+    private String endpoint;
+    private long requests;
+    private long statements;
+    private long slowStatements;
+    private double dbMillis;
+    private double avgDbMillis;
+    private double maxDbMillis;
+    private double avgStatements;
+}
@@ -0,0 +1,27 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acknowledgement for an ingested batch.
+ * Trips are durable in the write-ahead log when this is returned; they reach
+ * the trips table asynchronously.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionResultDTO {
+    private int accepted;
+    private long firstSequence;
+    private long lastSequence;
+    private int pending;
+    @Builder.Default
+    private List<DuplicateTripDTO> duplicates = new ArrayList<>();
+    // Accepted trips that overlap another trip of the same employee (flagged, not rejected)
+    @Builder.Default
+    private List<TripOverlapDTO> overlaps = new ArrayList<>();
+}
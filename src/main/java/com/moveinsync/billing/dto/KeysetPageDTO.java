@@ -0,0 +1,41 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) paginated listing.
+ * Pass {@code nextCursor} back as {@code afterId} to fetch the next page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+    private List<T> items;
+    private int size;
+    private Long nextCursor;
+    private boolean hasMore;
+    private long totalCount;
+
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows;
+     * the extra row only signals that another page exists.
+     */
+    public static <T> KeysetPageDTO<T> of(List<T> rows, int size,
+                                          Function<T, Long> idOf, long totalCount) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = items.isEmpty() ? null : idOf.apply(items.get(items.size() - 1));
+
+        return KeysetPageDTO.<T>builder()
+                .items(items)
+                .size(items.size())
+                .nextCursor(hasMore ? nextCursor : null)
+                .hasMore(hasMore)
+                .totalCount(totalCount)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Line-item sums for one group (a vendor or an employee).
+ * Sums are null when the group has no billed trips.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineItemTotalsDTO {
+    private Long groupId;
+    private Long billedTrips;
+    private BigDecimal extraHours;
+    private BigDecimal employeeIncentive;
+    private BigDecimal totalCost;
+}
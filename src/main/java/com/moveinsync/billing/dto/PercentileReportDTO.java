@@ -0,0 +1,20 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PercentileReportDTO {
+    private String scopeType;
+    private Long scopeId;
+    private LocalDate from;
+    private LocalDate to;
+    private long tripCount;
+    private double relativeError;
+    private DistributionDTO distanceKm;
+    private DistributionDTO durationHours;
+}
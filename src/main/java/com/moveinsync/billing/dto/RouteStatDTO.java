@@ -0,0 +1,19 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Approximate statistics for one route ("source -> destination").
+ * The true value lies in [lowerBound, estimate].
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStatDTO {
+    private String route;
+    private BigDecimal estimate;
+    private BigDecimal lowerBound;
+}
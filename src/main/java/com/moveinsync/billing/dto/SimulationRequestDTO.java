@@ -0,0 +1,34 @@
+package com.moveinsync.billing.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationRequestDTO {
+
+    @NotNull(message = "Vendor id is required")
+    private Long vendorId;
+
+    // Number of months to replay, ending at endMonth/endYear
+    @Min(value = 1, message = "At least one month is required")
+    @Max(value = 24, message = "At most 24 months can be replayed")
+    @Builder.Default
+    private int months = 3;
+
+    // Defaults to the previous calendar month
+    private Integer endMonth;
+    private Integer endYear;
+
+    @Valid
+    @NotEmpty(message = "At least one candidate is required")
+    private List<BillingCandidateDTO> candidates;
+}
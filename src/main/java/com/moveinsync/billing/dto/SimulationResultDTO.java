@@ -0,0 +1,18 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationResultDTO {
+    private Long vendorId;
+    // Replayed months as yyyy-MM, aligned with each candidate's monthlyAmounts
+    private List<String> months;
+    private int totalTrips;
+    private CandidateResultDTO current;
+    private List<CandidateResultDTO> candidates;
+}
@@ -0,0 +1,22 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One statement that ran longer than billing.sql-stats.slow-threshold-ms.
+ * Binds are the parameter types, never the values.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowStatementDTO {
+    private LocalDateTime at;
+    private String request;
+    private String sql;
+    private String binds;
+    private int batchRows;
+    private double millis;
+}
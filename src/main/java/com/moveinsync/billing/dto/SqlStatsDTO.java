@@ -0,0 +1,19 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Per-endpoint statement counts and DB time, most expensive first, plus
+ * the most recent slow statements.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatsDTO {
+    private long slowThresholdMs;
+    private List<EndpointSqlStatsDTO> endpoints;
+    private List<SlowStatementDTO> recentSlowStatements;
+}
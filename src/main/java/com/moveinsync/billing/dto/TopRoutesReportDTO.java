@@ -0,0 +1,24 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopRoutesReportDTO {
+    private String scopeType;
+    private Long scopeId;
+    private int month;
+    private int year;
+    private long totalTrips;
+    private BigDecimal totalCost;
+    // Count-Min additive error (epsilon * N) at 98% confidence
+    private long tripCountErrorBound;
+    private BigDecimal costErrorBound;
+    private List<RouteStatDTO> topByVolume;
+    private List<RouteStatDTO> topByCost;
+}
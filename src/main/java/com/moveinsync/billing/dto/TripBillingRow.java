@@ -0,0 +1,23 @@
+package com.moveinsync.billing.dto;
+
+import com.moveinsync.billing.model.BillableTrip;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Detached trip row read for a month close: the priced attributes plus
+ * what line items and route analytics need, without entity state.
+ */
+@Value
+public class TripBillingRow implements BillableTrip {
+    Long id;
+    Long vendorId;
+    Long employeeId;
+    LocalDateTime tripDate;
+    BigDecimal distanceKm;
+    BigDecimal durationHours;
+    String source;
+    String destination;
+}
@@ -0,0 +1,42 @@
+package com.moveinsync.billing.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Trip as submitted by the trip feed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripIngestDTO {
+
+    @NotBlank(message = "Trip code is required")
+    private String tripCode;
+
+    @NotNull(message = "Vendor id is required")
+    private Long vendorId;
+
+    @NotNull(message = "Employee id is required")
+    private Long employeeId;
+
+    @NotNull(message = "Trip date is required")
+    private LocalDateTime tripDate;
+
+    @NotNull(message = "Distance is required")
+    @DecimalMin(value = "0.0", message = "Distance cannot be negative")
+    private BigDecimal distanceKm;
+
+    @NotNull(message = "Duration is required")
+    @DecimalMin(value = "0.0", message = "Duration cannot be negative")
+    private BigDecimal durationHours;
+
+    private String source;
+    private String destination;
+}
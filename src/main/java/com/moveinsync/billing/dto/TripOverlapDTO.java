@@ -0,0 +1,27 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Two trips of the same employee whose time windows overlap.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripOverlapDTO {
+    private Long employeeId;
+    private Long firstTripId;
+    private String firstTripCode;
+    private Long firstVendorId;
+    private LocalDateTime firstStart;
+    private LocalDateTime firstEnd;
+    private Long secondTripId;
+    private String secondTripCode;
+    private Long secondVendorId;
+    private LocalDateTime secondStart;
+    private LocalDateTime secondEnd;
+    private long overlapMinutes;
+}
@@ -0,0 +1,17 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripOverlapReportDTO {
+    private int month;
+    private int year;
+    private int tripsChecked;
+    private int employeesWithConflicts;
+    private List<TripOverlapDTO> conflicts;
+}
@@ -0,0 +1,20 @@
+package com.moveinsync.billing.dto;
+
+import com.moveinsync.billing.model.BillableTrip;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable billing-relevant slice of a trip.
+ * Holds only what the strategies read, so cached month snapshots stay small
+ * and can be shared between concurrent simulations.
+ */
+@Value
+public class TripSnapshot implements BillableTrip {
+    Long id;
+    LocalDateTime tripDate;
+    BigDecimal distanceKm;
+    BigDecimal durationHours;
+}
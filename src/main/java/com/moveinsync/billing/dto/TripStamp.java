@@ -0,0 +1,16 @@
+package com.moveinsync.billing.dto;
+
+import lombok.Value;
+
+/**
+ * Change marker for a vendor's trips in a period: the row count and the sum
+ * of a hash of each row's id and updatedAt. Any insert, delete or entity
+ * update of those trips changes the checksum (barring a hash collision),
+ * whatever ids the rows have, so two equal stamps mean the priced rows are
+ * unchanged.
+ */
+@Value
+public class TripStamp {
+    Long tripCount;
+    Long checksum;
+}
@@ -0,0 +1,22 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * Flat vendor row for list endpoints.
+ * Built directly from a JPQL constructor projection so no trips or
+ * billing configuration are ever loaded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorSummaryDTO {
+    private Long id;
+    private String vendorCode;
+    private String name;
+    private String email;
+    private String phone;
+    private Boolean active;
+    private Long clientId;
+}
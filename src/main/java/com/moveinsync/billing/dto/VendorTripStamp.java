@@ -0,0 +1,17 @@
+package com.moveinsync.billing.dto;
+
+import lombok.Value;
+
+/**
+ * {@link TripStamp} of one vendor, from the per-vendor query over a period.
+ */
+@Value
+public class VendorTripStamp {
+    Long vendorId;
+    Long tripCount;
+    Long checksum;
+
+    public TripStamp toStamp() {
+        return new TripStamp(tripCount, checksum);
+    }
+}
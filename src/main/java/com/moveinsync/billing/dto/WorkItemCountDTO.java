@@ -0,0 +1,14 @@
+package com.moveinsync.billing.dto;
+
+import com.moveinsync.billing.model.enums.WorkItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkItemCountDTO {
+    private WorkItemStatus status;
+    private Long items;
+}
@@ -0,0 +1,19 @@
+package com.moveinsync.billing.dto;
+
+import lombok.*;
+
+/**
+ * Progress of a cluster month close, by work item status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkQueueStatusDTO {
+    private int month;
+    private int year;
+    private long pending;
+    private long claimed;
+    private long done;
+    private long failed;
+}
@@ -0,0 +1,15 @@
+package com.moveinsync.billing.exception;
+
+public class IngestionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IngestionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
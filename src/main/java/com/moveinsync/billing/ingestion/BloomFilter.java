@@ -0,0 +1,81 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.util.Hashing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Probe positions come from double hashing two seeded {@link Hashing}
+ * values; bits are set with CAS so concurrent puts never lose updates.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    private BloomFilter(AtomicLongArray words, int hashCount) {
+        this.words = words;
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = hashCount;
+    }
+
+    public void put(String value) {
+        long h1 = Hashing.hash(value, Hashing.SEED_1);
+        long h2 = Hashing.hash(value, Hashing.SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = Hashing.hash(value, Hashing.SEED_1);
+        long h2 = Hashing.hash(value, Hashing.SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(hashCount);
+        out.writeInt(words.length());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInputStream in) throws IOException {
+        int hashCount = in.readInt();
+        AtomicLongArray words = new AtomicLongArray(in.readInt());
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, in.readLong());
+        }
+        return new BloomFilter(words, hashCount);
+    }
+}
@@ -0,0 +1,16 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.DuplicateTripDTO;
+import com.moveinsync.billing.dto.TripIngestDTO;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of duplicate screening for one submitted batch.
+ */
+@Value
+public class ScreeningResult {
+    List<TripIngestDTO> accepted;
+    List<DuplicateTripDTO> duplicates;
+}
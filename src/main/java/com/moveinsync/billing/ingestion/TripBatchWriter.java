@@ -0,0 +1,267 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.analytics.RouteAnalyticsService;
+import com.moveinsync.billing.analytics.TripDistributionService;
+import com.moveinsync.billing.bulk.TripBulkWriter;
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.dto.TripIngestDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background consumer that drains the ingestion ring buffer into the trips
+ * table in large batches, then advances the WAL checkpoint.
+ *
+ * Writes are idempotent by tripCode: codes already in the table are skipped
+ * (see {@link TripBulkWriter}), which makes replaying unflushed WAL entries
+ * after a restart safe. On start the WAL is replayed before the web server
+ * accepts traffic.
+ *
+ * Acknowledged trips the insert skips because their code is already stored
+ * (by another node, since this node screened them) are logged and reported
+ * through {@link TripDuplicateDetector#reportStored}. While replaying the WAL
+ * at startup a skipped trip is usually this node's own write from before
+ * the crash, so those are only logged.
+ *
+ * The checkpoint only moves past a batch once every trip in it is stored or
+ * rejected for a data reason (constraint or invalid value). Any other
+ * failure, such as the database being down or a pool timeout, keeps the
+ * batch and retries it with backoff, so acknowledged trips are never lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TripBatchWriter implements SmartLifecycle {
+
+    private final TripRingBuffer<WalEntry> ringBuffer;
+    private final TripWriteAheadLog writeAheadLog;
+    private final TripBulkWriter tripBulkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final TripDuplicateDetector duplicateDetector;
+    private final RouteAnalyticsService routeAnalytics;
+    private final TripDistributionService tripDistributions;
+
+    // Lower phases start earlier and stop later; the web server starts at SMART_LIFECYCLE_PHASE - 1024
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    // Attempts per batch while replaying the WAL at startup before startup fails
+    private static final int STARTUP_ATTEMPTS = 5;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    @Value("${billing.ingestion.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${billing.ingestion.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private volatile boolean running;
+    private volatile boolean replaying;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        List<WalEntry> pending;
+        try {
+            pending = writeAheadLog.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover trip WAL", e);
+        }
+        running = true;
+        replaying = true;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            if (!writeWithRetry(pending.subList(from, Math.min(pending.size(), from + batchSize)),
+                    STARTUP_ATTEMPTS)) {
+                running = false;
+                throw new IllegalStateException("Could not replay the trip WAL; its entries are kept for the next start");
+            }
+        }
+        replaying = false;
+
+        worker = new Thread(this::drainLoop, "trip-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            writeAheadLog.close();
+        } catch (IOException e) {
+            log.warn("Failed to close trip WAL: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before the web server so replayed trips are visible to the first request
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        List<WalEntry> batch = new ArrayList<>(batchSize);
+        while (running || ringBuffer.size() > 0) {
+            batch.clear();
+            if (ringBuffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            if (!writeWithRetry(batch, Integer.MAX_VALUE)) {
+                // Stopping: this batch and everything after it stay in the WAL for the next start
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, retrying with exponential backoff until it succeeds,
+     * the writer stops, or {@code maxAttempts} is reached.
+     * @return whether the batch was written and checkpointed
+     */
+    private boolean writeWithRetry(List<WalEntry> batch, int maxAttempts) {
+        long backoffMs = flushIntervalMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                if (!running || attempt >= maxAttempts) {
+                    log.error("Trip batch of {} (sequences {}-{}) not stored, kept in the WAL: {}",
+                            batch.size(), batch.get(0).getSequence(),
+                            batch.get(batch.size() - 1).getSequence(), e.getMessage());
+                    return false;
+                }
+                log.warn("Trip batch of {} not stored ({}); retrying in {} ms",
+                        batch.size(), e.getMessage(), backoffMs);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch in one transaction; if that fails for a data reason,
+     * falls back to one transaction per trip so a single bad record cannot
+     * block the stream. Other failures propagate without a checkpoint.
+     * Inserts use the batch connection pool.
+     */
+    void write(List<WalEntry> batch) throws IOException {
+        BatchRoutingDataSource.batch(() -> insert(batch));
+        writeAheadLog.checkpoint(batch.get(batch.size() - 1).getSequence());
+        duplicateDetector.release(batch.stream().map(entry -> entry.getTrip().getTripCode()).toList());
+    }
+
+    private void insert(List<WalEntry> batch) {
+        try {
+            tripDistributions.ingesting(() -> stored(batch, transactionTemplate.execute(status -> insertNew(batch))));
+        } catch (RuntimeException e) {
+            if (!isDataError(e)) {
+                throw e;
+            }
+            log.warn("Batch insert of {} trips failed ({}); retrying one by one",
+                    batch.size(), e.getMessage());
+            for (WalEntry entry : batch) {
+                try {
+                    tripDistributions.ingesting(() ->
+                            stored(List.of(entry), transactionTemplate.execute(status -> insertNew(List.of(entry)))));
+                } catch (RuntimeException single) {
+                    if (!isDataError(single)) {
+                        // Rows stored so far are skipped by tripCode when the batch is retried
+                        throw single;
+                    }
+                    log.error("Rejecting trip {} (sequence {}): {}",
+                            entry.getTrip().getTripCode(), entry.getSequence(), single.getMessage());
+                }
+            }
+        }
+    }
+
+    // Constraint violations and invalid values (SQLSTATE classes 22 and 23) fail again on every retry
+    private static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles the outcome of an insert: entries whose code was not inserted
+     * were already stored.
+     */
+    private void stored(List<WalEntry> entries, List<TripIngestDTO> inserted) {
+        recordAnalytics(inserted);
+        if (inserted.size() == entries.size()) {
+            return;
+        }
+        Set<String> insertedCodes = new HashSet<>();
+        inserted.forEach(trip -> insertedCodes.add(trip.getTripCode()));
+        List<WalEntry> skipped = entries.stream()
+                .filter(entry -> !insertedCodes.contains(entry.getTrip().getTripCode()))
+                .toList();
+        if (skipped.isEmpty()) {
+            return;
+        }
+        if (replaying) {
+            log.info("WAL replay skipped {} trips already stored", skipped.size());
+            return;
+        }
+        for (WalEntry entry : skipped) {
+            log.warn("Trip {} (sequence {}) was already stored; reported as a duplicate",
+                    entry.getTrip().getTripCode(), entry.getSequence());
+        }
+        duplicateDetector.reportStored(skipped);
+    }
+
+    private void recordAnalytics(List<TripIngestDTO> inserted) {
+        for (TripIngestDTO dto : inserted) {
+            routeAnalytics.recordTrip(dto.getVendorId(), dto.getTripDate(), dto.getSource(), dto.getDestination());
+            tripDistributions.recordTrip(dto.getVendorId(), dto.getTripDate(), dto.getDistanceKm(), dto.getDurationHours());
+        }
+    }
+
+    /**
+     * Returns the trips actually inserted, i.e. without codes already stored.
+     */
+    private List<TripIngestDTO> insertNew(List<WalEntry> batch) {
+        List<TripIngestDTO> trips = new ArrayList<>(batch.size());
+        for (WalEntry entry : batch) {
+            trips.add(entry.getTrip());
+        }
+        return tripBulkWriter.insertNew(trips);
+    }
+}
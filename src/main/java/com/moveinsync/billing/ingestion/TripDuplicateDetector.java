@@ -0,0 +1,328 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.DuplicateTripDTO;
+import com.moveinsync.billing.dto.TripIngestDTO;
+import com.moveinsync.billing.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Duplicate-trip screening for ingestion.
+ *
+ * Keeps one Bloom filter of trip codes per month for the retained months,
+ * plus one archive filter for every trip older than them, so together the
+ * filters cover the whole table. Trip codes are unique across months, so a
+ * code is probed against every filter, not just its own month's. A code no
+ * filter has seen is new without touching the database; only probable
+ * duplicates are confirmed with one batched IN query. Filters for months
+ * that start after boot are created on first use. Codes accepted but not
+ * yet flushed are tracked in a pending set, which also serves as the claim
+ * that stops two concurrent batches from accepting the same code.
+ *
+ * Filters are persisted under the WAL directory on shutdown and reused at
+ * startup when their trip count and max id still match; otherwise they are
+ * rebuilt from the trips table.
+ *
+ * Filters and claims are local to this node, so a code another node stored
+ * or holds in flight passes screening. The batch writer finds such trips
+ * when its insert skips them and reports them here; clients read them back
+ * by WAL sequence, since the batch was already acknowledged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TripDuplicateDetector implements SmartLifecycle {
+
+    public static final String EXISTS = "EXISTS";
+    public static final String PENDING = "PENDING";
+    public static final String DUPLICATE_IN_BATCH = "DUPLICATE_IN_BATCH";
+
+    private static final LocalDateTime ARCHIVE_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${billing.ingestion.wal-dir:./data/wal}")
+    private String dataDirectory;
+
+    @Value("${billing.ingestion.bloom.retention-months:3}")
+    private int retentionMonths;
+
+    @Value("${billing.ingestion.bloom.expected-trips-per-month:1000000}")
+    private long expectedTripsPerMonth;
+
+    @Value("${billing.ingestion.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${billing.ingestion.late-duplicates-retained:10000}")
+    private int lateDuplicatesRetained;
+
+    private final Map<YearMonth, BloomFilter> filters = new ConcurrentHashMap<>();
+    private final Set<String> pendingCodes = ConcurrentHashMap.newKeySet();
+    // Most recent write-time duplicates in sequence order; guarded by itself
+    private final Deque<DuplicateTripDTO> lateDuplicates = new ArrayDeque<>();
+    private volatile YearMonth firstMonth;
+    private volatile BloomFilter archive;
+    private volatile boolean running;
+
+    /**
+     * Splits a batch into new trips and duplicates, claiming the new codes.
+     * Callers must {@link #release} the claims if the batch is not accepted;
+     * if screening itself throws, no claims are left behind.
+     * Time Complexity: O(b * f * k) for b trips, f filters and k hash probes,
+     * plus one query for probable duplicates
+     */
+    public ScreeningResult screen(List<TripIngestDTO> trips) {
+        List<DuplicateTripDTO> duplicates = new ArrayList<>();
+        Map<String, Integer> claimed = new LinkedHashMap<>();
+        Set<String> toConfirm = new HashSet<>();
+
+        try {
+            for (int i = 0; i < trips.size(); i++) {
+                String code = trips.get(i).getTripCode();
+                if (claimed.containsKey(code)) {
+                    duplicates.add(duplicate(i, code, DUPLICATE_IN_BATCH));
+                    continue;
+                }
+                if (!pendingCodes.add(code)) {
+                    duplicates.add(duplicate(i, code, PENDING));
+                    continue;
+                }
+                claimed.put(code, i);
+
+                // Make sure the month is covered before trusting a negative answer
+                filterFor(YearMonth.from(trips.get(i).getTripDate()));
+                if (mightBeStored(code)) {
+                    toConfirm.add(code);
+                }
+            }
+
+            if (!toConfirm.isEmpty()) {
+                for (String code : tripRepository.findExistingTripCodes(toConfirm)) {
+                    int index = claimed.remove(code);
+                    pendingCodes.remove(code);
+                    duplicates.add(duplicate(index, code, EXISTS));
+                }
+            }
+        } catch (RuntimeException e) {
+            // The batch is rejected, so its claims must not outlive it
+            pendingCodes.removeAll(claimed.keySet());
+            throw e;
+        }
+
+        List<TripIngestDTO> accepted = new ArrayList<>(claimed.size());
+        claimed.values().forEach(index -> accepted.add(trips.get(index)));
+        duplicates.sort(Comparator.comparing(DuplicateTripDTO::getIndex));
+
+        log.debug("Screened {} trips: {} new, {} confirmed against DB, {} duplicates",
+                trips.size(), accepted.size(), toConfirm.size(), duplicates.size());
+        return new ScreeningResult(accepted, duplicates);
+    }
+
+    /**
+     * Records accepted trips in their month's filter.
+     */
+    public void recordAccepted(List<TripIngestDTO> trips) {
+        for (TripIngestDTO trip : trips) {
+            filterFor(YearMonth.from(trip.getTripDate())).put(trip.getTripCode());
+        }
+    }
+
+    /**
+     * Reports acknowledged trips that were skipped at write time because
+     * their code was already stored, typically by another node. Only the
+     * most recent ones are retained.
+     */
+    public void reportStored(List<WalEntry> entries) {
+        synchronized (lateDuplicates) {
+            for (WalEntry entry : entries) {
+                lateDuplicates.addLast(DuplicateTripDTO.builder()
+                        .sequence(entry.getSequence())
+                        .tripCode(entry.getTrip().getTripCode())
+                        .reason(EXISTS)
+                        .build());
+                if (lateDuplicates.size() > lateDuplicatesRetained) {
+                    lateDuplicates.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Write-time duplicates with a WAL sequence above the given one.
+     * Time Complexity: O(r) for r retained reports
+     */
+    public List<DuplicateTripDTO> storedDuplicatesAfter(long sequence) {
+        synchronized (lateDuplicates) {
+            return lateDuplicates.stream()
+                    .filter(duplicate -> duplicate.getSequence() > sequence)
+                    .toList();
+        }
+    }
+
+    /**
+     * Drops claims once trips are in the table (or were rejected).
+     */
+    public void release(Collection<String> tripCodes) {
+        pendingCodes.removeAll(tripCodes);
+    }
+
+    @Override
+    public void start() {
+        YearMonth current = YearMonth.now();
+        firstMonth = current.minusMonths(Math.max(retentionMonths, 1) - 1);
+        archive = loadOrRebuild(archiveWindow());
+        for (YearMonth month = firstMonth; !month.isAfter(current); month = month.plusMonths(1)) {
+            filters.put(month, loadOrRebuild(monthWindow(month)));
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        persist(archiveWindow(), archive);
+        filters.forEach((month, filter) -> persist(monthWindow(month), filter));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Filters are ready before the WAL replay and before the web server starts
+    @Override
+    public int getPhase() {
+        return TripBatchWriter.PHASE - 1;
+    }
+
+    private boolean mightBeStored(String code) {
+        if (archive.mightContain(code)) {
+            return true;
+        }
+        for (BloomFilter filter : filters.values()) {
+            if (filter.mightContain(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the filter covering a month, building it on first use. Months
+     * before the retained ones share the archive filter. Building is
+     * serialized so a month's filter exists before any of its trips is
+     * recorded.
+     */
+    private BloomFilter filterFor(YearMonth month) {
+        if (month.isBefore(firstMonth)) {
+            return archive;
+        }
+        BloomFilter filter = filters.get(month);
+        if (filter != null) {
+            return filter;
+        }
+        synchronized (filters) {
+            filter = filters.get(month);
+            if (filter == null) {
+                filter = loadOrRebuild(monthWindow(month));
+                filters.put(month, filter);
+            }
+            return filter;
+        }
+    }
+
+    private BloomFilter loadOrRebuild(Window window) {
+        long count = tripRepository.countByTripDateBetween(window.startDate(), window.endDate());
+        Long maxId = tripRepository.findMaxIdByTripDateBetween(window.startDate(), window.endDate());
+        long maxIdValue = maxId == null ? 0 : maxId;
+
+        Path file = filterFile(window);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readLong() == count && in.readLong() == maxIdValue) {
+                    log.info("Loaded trip code Bloom filter for {} ({} trips)", window.name(), count);
+                    return BloomFilter.readFrom(in);
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable Bloom filter {}: {}", file, e.getMessage());
+            }
+        }
+
+        BloomFilter filter = new BloomFilter(
+                Math.max(expectedTripsPerMonth, count * 2), falsePositiveRate);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> codes = tripRepository.streamTripCodes(
+                    window.startDate(), window.endDate())) {
+                codes.forEach(filter::put);
+            }
+        });
+        log.info("Rebuilt trip code Bloom filter for {} from {} trips", window.name(), count);
+        persist(window, filter, count, maxIdValue);
+        return filter;
+    }
+
+    private void persist(Window window, BloomFilter filter) {
+        try {
+            Long maxId = tripRepository.findMaxIdByTripDateBetween(window.startDate(), window.endDate());
+            persist(window, filter,
+                    tripRepository.countByTripDateBetween(window.startDate(), window.endDate()),
+                    maxId == null ? 0 : maxId);
+        } catch (RuntimeException e) {
+            log.warn("Could not persist Bloom filter for {}: {}", window.name(), e.getMessage());
+        }
+    }
+
+    private void persist(Window window, BloomFilter filter, long count, long maxId) {
+        Path file = filterFile(window);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeLong(count);
+                out.writeLong(maxId);
+                filter.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not persist Bloom filter for {}: {}", window.name(), e.getMessage());
+        }
+    }
+
+    private Window archiveWindow() {
+        return new Window("before-" + firstMonth, ARCHIVE_START,
+                firstMonth.atDay(1).atStartOfDay().minusSeconds(1));
+    }
+
+    private static Window monthWindow(YearMonth month) {
+        return new Window(month.toString(), month.atDay(1).atStartOfDay(),
+                month.atEndOfMonth().atTime(23, 59, 59));
+    }
+
+    private Path filterFile(Window window) {
+        return Path.of(dataDirectory).resolve("bloom").resolve("trip-codes-" + window.name() + ".bloom");
+    }
+
+    private static DuplicateTripDTO duplicate(int index, String code, String reason) {
+        return DuplicateTripDTO.builder().index(index).tripCode(code).reason(reason).build();
+    }
+
+    private record Window(String name, LocalDateTime startDate, LocalDateTime endDate) {
+    }
+}
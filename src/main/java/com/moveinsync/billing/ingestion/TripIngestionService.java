@@ -0,0 +1,80 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.IngestionResultDTO;
+import com.moveinsync.billing.dto.TripIngestDTO;
+import com.moveinsync.billing.dto.TripOverlapDTO;
+import com.moveinsync.billing.exception.IngestionRejectedException;
+import com.moveinsync.billing.validation.TripOverlapValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Entry point of the trip ingestion pipeline.
+ * A batch is acknowledged once it is durable in the WAL and queued in the
+ * ring buffer; a full buffer rejects the whole batch so callers can back off.
+ * Time Complexity: O(b) per batch of b trips, no database I/O
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TripIngestionService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final TripRingBuffer<WalEntry> ringBuffer;
+    private final TripWriteAheadLog writeAheadLog;
+    private final TripDuplicateDetector duplicateDetector;
+    private final TripOverlapValidator overlapValidator;
+
+    public IngestionResultDTO ingest(List<TripIngestDTO> submitted) {
+        // Duplicates are reported per record instead of failing the batch
+        ScreeningResult screening = duplicateDetector.screen(submitted);
+        List<TripIngestDTO> trips = screening.getAccepted();
+        if (trips.isEmpty()) {
+            return IngestionResultDTO.builder()
+                    .pending(ringBuffer.size())
+                    .duplicates(screening.getDuplicates())
+                    .build();
+        }
+
+        List<WalEntry> entries;
+        try {
+            // The ring buffer is single-producer: appends and offers happen under one lock,
+            // and the consumer only frees space, so the capacity check below cannot go stale.
+            synchronized (ringBuffer) {
+                if (ringBuffer.remainingCapacity() < trips.size()) {
+                    throw new IngestionRejectedException(
+                            "Ingestion buffer is full, retry later", RETRY_AFTER_SECONDS);
+                }
+                try {
+                    entries = writeAheadLog.append(trips);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write trips to WAL", e);
+                }
+                entries.forEach(ringBuffer::offer);
+            }
+        } catch (RuntimeException e) {
+            duplicateDetector.release(trips.stream().map(TripIngestDTO::getTripCode).toList());
+            throw e;
+        }
+        duplicateDetector.recordAccepted(trips);
+        List<TripOverlapDTO> overlaps = overlapValidator.findIncomingOverlaps(trips);
+
+        log.debug("Accepted {} trips (sequences {}-{})", entries.size(),
+                entries.get(0).getSequence(), entries.get(entries.size() - 1).getSequence());
+
+        return IngestionResultDTO.builder()
+                .accepted(entries.size())
+                .firstSequence(entries.get(0).getSequence())
+                .lastSequence(entries.get(entries.size() - 1).getSequence())
+                .pending(ringBuffer.size())
+                .duplicates(screening.getDuplicates())
+                .overlaps(overlaps)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.moveinsync.billing.ingestion;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free single-producer/single-consumer ring buffer.
+ * Producers must be serialized by the caller (ingestion appends under the
+ * WAL lock anyway); the background writer is the only consumer. Slot
+ * publication relies on the release/acquire ordering of head and tail.
+ */
+public class TripRingBuffer<T> {
+
+    private final Object[] slots;
+    private final int mask;
+    private final int capacity;
+
+    // Next slot to read; written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to write; written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    public TripRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.capacity = size;
+    }
+
+    public boolean offer(T item) {
+        long t = tail.get();
+        if (t - head.get() >= capacity) {
+            return false;
+        }
+        slots[(int) (t & mask)] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} items into {@code sink} in FIFO order.
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<T> sink, int max) {
+        long h = head.get();
+        int available = (int) Math.min(max, tail.get() - h);
+        for (int i = 0; i < available; i++) {
+            int index = (int) ((h + i) & mask);
+            sink.add((T) slots[index]);
+            slots[index] = null;
+        }
+        head.lazySet(h + available);
+        return available;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,264 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.TripIngestDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead log for ingested trips.
+ *
+ * Layout: fixed-size segment files {@code trips-<n>.wal} holding records of
+ * [int length][int crc32][payload], zero-terminated. A separate mapped
+ * {@code checkpoint} file stores the highest sequence known to be committed to
+ * the database. Segments wholly below the checkpoint are deleted.
+ */
+@Slf4j
+public class TripWriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "trips-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private FileChannel checkpointChannel;
+    private MappedByteBuffer checkpointBuffer;
+    private Segment active;
+    private long nextSequence;
+    private volatile long checkpoint;
+
+    public TripWriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log and returns every entry written after the last checkpoint,
+     * in sequence order. Torn records at the tail are discarded.
+     */
+    public synchronized List<WalEntry> recover() throws IOException {
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve("checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpointBuffer = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        checkpoint = checkpointBuffer.getLong(0);
+
+        List<Long> indexes;
+        try (Stream<Path> files = Files.list(directory)) {
+            indexes = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(
+                            SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        List<WalEntry> pending = new ArrayList<>();
+        long maxSequence = checkpoint;
+        for (Long index : indexes) {
+            Segment segment = openSegment(index);
+            maxSequence = Math.max(maxSequence, scan(segment, pending));
+            segments.addLast(segment);
+        }
+
+        if (segments.isEmpty()) {
+            segments.addLast(openSegment(0));
+        }
+        active = segments.peekLast();
+        nextSequence = maxSequence + 1;
+
+        log.info("Trip WAL opened at {}: checkpoint {}, {} entries to replay",
+                directory, checkpoint, pending.size());
+        return pending;
+    }
+
+    /**
+     * Appends trips and forces them to disk before returning (group commit).
+     * Time Complexity: O(b) for b trips, one msync per call
+     */
+    public synchronized List<WalEntry> append(List<TripIngestDTO> trips) throws IOException {
+        List<WalEntry> entries = new ArrayList<>(trips.size());
+        for (TripIngestDTO trip : trips) {
+            long sequence = nextSequence++;
+            byte[] payload = encode(sequence, trip);
+            if (payload.length + RECORD_HEADER + Integer.BYTES > segmentSize) {
+                throw new IllegalArgumentException("Trip " + trip.getTripCode() + " exceeds WAL segment size");
+            }
+            if (active.buffer.remaining() < payload.length + RECORD_HEADER + Integer.BYTES) {
+                rotate();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            active.buffer.putInt(payload.length);
+            active.buffer.putInt((int) crc.getValue());
+            active.buffer.put(payload);
+            active.lastSequence = sequence;
+            entries.add(new WalEntry(sequence, trip));
+        }
+        // Terminator, in case the tail still holds bytes of a discarded torn record
+        active.buffer.putInt(active.buffer.position(), 0);
+        active.buffer.force();
+        return entries;
+    }
+
+    /**
+     * Records that every entry up to {@code sequence} is in the database and
+     * drops segments that no longer hold unflushed entries.
+     */
+    public synchronized void checkpoint(long sequence) throws IOException {
+        if (sequence <= checkpoint) {
+            return;
+        }
+        checkpointBuffer.putLong(0, sequence);
+        checkpointBuffer.force();
+        checkpoint = sequence;
+
+        while (segments.size() > 1 && segments.peekFirst().lastSequence <= sequence) {
+            Segment done = segments.pollFirst();
+            done.channel.close();
+            Files.deleteIfExists(done.path);
+        }
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        if (checkpointChannel != null) {
+            checkpointChannel.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        active.buffer.force();
+        Segment next = openSegment(active.index + 1);
+        segments.addLast(next);
+        active = next;
+    }
+
+    private Segment openSegment(long index) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%012d", index) + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(index, path, channel, buffer);
+    }
+
+    /**
+     * Reads records until the zero terminator or the first corrupt record,
+     * leaving the buffer positioned for further appends.
+     */
+    private long scan(Segment segment, List<WalEntry> pending) throws IOException {
+        MappedByteBuffer buffer = segment.buffer;
+        long maxSequence = 0;
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - Integer.BYTES) {
+                buffer.position(start);
+                break;
+            }
+            int expectedCrc = buffer.getInt();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                log.warn("Discarding torn WAL record in {} at offset {}", segment.path, start);
+                buffer.position(start);
+                buffer.putInt(start, 0);
+                break;
+            }
+
+            WalEntry entry = decode(payload);
+            maxSequence = Math.max(maxSequence, entry.getSequence());
+            segment.lastSequence = entry.getSequence();
+            if (entry.getSequence() > checkpoint) {
+                pending.add(entry);
+            }
+        }
+        return maxSequence;
+    }
+
+    private static byte[] encode(long sequence, TripIngestDTO trip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sequence);
+            out.writeUTF(trip.getTripCode());
+            out.writeLong(trip.getVendorId());
+            out.writeLong(trip.getEmployeeId());
+            out.writeLong(trip.getTripDate().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(trip.getTripDate().getNano());
+            out.writeUTF(trip.getDistanceKm().toPlainString());
+            out.writeUTF(trip.getDurationHours().toPlainString());
+            writeNullable(out, trip.getSource());
+            writeNullable(out, trip.getDestination());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static WalEntry decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long sequence = in.readLong();
+            TripIngestDTO trip = TripIngestDTO.builder()
+                    .tripCode(in.readUTF())
+                    .vendorId(in.readLong())
+                    .employeeId(in.readLong())
+                    .tripDate(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+                    .distanceKm(new BigDecimal(in.readUTF()))
+                    .durationHours(new BigDecimal(in.readUTF()))
+                    .source(readNullable(in))
+                    .destination(readNullable(in))
+                    .build();
+            return new WalEntry(sequence, trip);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+
+        private Segment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
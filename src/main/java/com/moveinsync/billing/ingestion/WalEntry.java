@@ -0,0 +1,13 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.TripIngestDTO;
+import lombok.Value;
+
+/**
+ * A trip together with its write-ahead log sequence number.
+ */
+@Value
+public class WalEntry {
+    long sequence;
+    TripIngestDTO trip;
+}
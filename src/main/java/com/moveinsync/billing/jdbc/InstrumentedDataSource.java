@@ -0,0 +1,152 @@
+package com.moveinsync.billing.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DataSource decorator that times every statement execution through JDK
+ * proxies around Connection and Statement and reports it to the
+ * {@link QueryRecorder}, together with the bind shape (the parameter
+ * types, not the values) and the batch size. unwrap/isWrapperFor pass
+ * through, so driver-specific access such as COPY keeps working.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final QueryRecorder recorder;
+
+    public InstrumentedDataSource(DataSource target, QueryRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // equals/hashCode by proxy identity, as Spring's connection bookkeeping expects
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (!STATEMENT_FACTORIES.contains(method.getName())) {
+                return result;
+            }
+            Class<?> type = method.getReturnType();
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, sql,
+                            type == PreparedStatement.class || type == CallableStatement.class));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final boolean prepared;
+        private final List<String> binds = new ArrayList<>();
+        private int batchRows;
+
+        StatementHandler(Statement target, String preparedSql, boolean prepared) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.prepared = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (prepared && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            } else if (name.equals("addBatch")) {
+                batchRows++;
+            } else if (name.equals("clearBatch")) {
+                batchRows = 0;
+            }
+            if (!EXECUTES.contains(name)) {
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            boolean batch = name.endsWith("Batch");
+            long start = System.nanoTime();
+            try {
+                return InstrumentedDataSource.invoke(target, method, args);
+            } finally {
+                recorder.record(sql, System.nanoTime() - start, prepared ? binds.toString() : "[]",
+                        batch ? batchRows : 1);
+                if (batch) {
+                    batchRows = 0;
+                }
+            }
+        }
+
+        private void bind(int index, String type) {
+            while (binds.size() < index) {
+                binds.add("?");
+            }
+            binds.set(index - 1, type);
+        }
+    }
+}
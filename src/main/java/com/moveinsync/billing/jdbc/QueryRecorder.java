@@ -0,0 +1,186 @@
+package com.moveinsync.billing.jdbc;
+
+import com.moveinsync.billing.dto.EndpointSqlStatsDTO;
+import com.moveinsync.billing.dto.SlowStatementDTO;
+import com.moveinsync.billing.dto.SqlStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects what {@link InstrumentedDataSource} measures: per-request
+ * statement count and DB time (for the Server-Timing header), per-endpoint
+ * totals, and statements slower than the threshold. Slow statements are
+ * kept in a short recent list and logged at most once per interval per SQL
+ * text, with the number of occurrences since the last line, so a hot slow
+ * query can't flood the log.
+ */
+@Component
+@Slf4j
+public class QueryRecorder {
+
+    private static final int MAX_SQL_LENGTH = 1000;
+    // Distinct slow SQL texts tracked for log sampling before the table is reset
+    private static final int MAX_SAMPLED_SQL = 1000;
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final long slowThresholdNanos;
+    private final long slowLogIntervalNanos;
+    private final int recentSlowCapacity;
+
+    private final Map<String, EndpointTotals> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, SlowLogSample> slowLogSamples = new ConcurrentHashMap<>();
+    private final Deque<SlowStatementDTO> recentSlow = new ArrayDeque<>();
+
+    public QueryRecorder(@Value("${billing.sql-stats.slow-threshold-ms:200}") long slowThresholdMs,
+                         @Value("${billing.sql-stats.slow-log-interval-ms:60000}") long slowLogIntervalMs,
+                         @Value("${billing.sql-stats.recent-slow:50}") int recentSlowCapacity) {
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000;
+        this.slowLogIntervalNanos = slowLogIntervalMs * 1_000_000;
+        this.recentSlowCapacity = Math.max(0, recentSlowCapacity);
+    }
+
+    /**
+     * Starts counting the statements of the request on this thread.
+     */
+    RequestQueries beginRequest(String request) {
+        RequestQueries queries = new RequestQueries(request);
+        CURRENT.set(queries);
+        return queries;
+    }
+
+    /**
+     * Stops counting for this thread and adds the request to its endpoint's
+     * totals.
+     */
+    void endRequest(RequestQueries queries, String endpoint) {
+        CURRENT.remove();
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointTotals()).add(queries);
+    }
+
+    /**
+     * Called by the JDBC proxies after every execute.
+     */
+    void record(String sql, long nanos, String binds, int batchRows) {
+        boolean slow = nanos >= slowThresholdNanos;
+        RequestQueries queries = CURRENT.get();
+        if (queries != null) {
+            queries.add(nanos, slow);
+        }
+        if (slow) {
+            recordSlow(queries != null ? queries.getRequest() : Thread.currentThread().getName(),
+                    sql, nanos, binds, batchRows);
+        }
+    }
+
+    public SqlStatsDTO getStats() {
+        List<EndpointSqlStatsDTO> rows = new ArrayList<>(endpoints.size());
+        endpoints.forEach((endpoint, totals) -> rows.add(totals.toDTO(endpoint)));
+        rows.sort(Comparator.comparingDouble(EndpointSqlStatsDTO::getDbMillis).reversed());
+
+        List<SlowStatementDTO> slow;
+        synchronized (recentSlow) {
+            slow = new ArrayList<>(recentSlow);
+        }
+        return SqlStatsDTO.builder()
+                .slowThresholdMs(slowThresholdNanos / 1_000_000)
+                .endpoints(rows)
+                .recentSlowStatements(slow)
+                .build();
+    }
+
+    public void reset() {
+        endpoints.clear();
+        synchronized (recentSlow) {
+            recentSlow.clear();
+        }
+    }
+
+    private void recordSlow(String request, String sql, long nanos, String binds, int batchRows) {
+        String text = sql == null ? "?" : sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+        double millis = nanos / 1_000_000.0;
+        if (recentSlowCapacity > 0) {
+            SlowStatementDTO statement = SlowStatementDTO.builder()
+                    .at(LocalDateTime.now())
+                    .request(request)
+                    .sql(text)
+                    .binds(binds)
+                    .batchRows(batchRows)
+                    .millis(millis)
+                    .build();
+            synchronized (recentSlow) {
+                if (recentSlow.size() >= recentSlowCapacity) {
+                    recentSlow.removeFirst();
+                }
+                recentSlow.addLast(statement);
+            }
+        }
+
+        if (slowLogSamples.size() >= MAX_SAMPLED_SQL) {
+            slowLogSamples.clear();
+        }
+        long occurrences = slowLogSamples.computeIfAbsent(text, key -> new SlowLogSample())
+                .occur(System.nanoTime(), slowLogIntervalNanos);
+        if (occurrences > 0) {
+            log.warn("Slow SQL {} ms ({} occurrences since last logged, batch rows {}) in {}: {} binds {}",
+                    String.format("%.1f", millis), occurrences, batchRows, request, text, binds);
+        }
+    }
+
+    private static final class SlowLogSample {
+        private boolean logged;
+        private long loggedAt;
+        private long occurrences;
+
+        // Occurrences to report on a log line now, or 0 while the interval hasn't passed
+        synchronized long occur(long now, long interval) {
+            occurrences++;
+            if (logged && now - loggedAt < interval) {
+                return 0;
+            }
+            logged = true;
+            loggedAt = now;
+            long count = occurrences;
+            occurrences = 0;
+            return count;
+        }
+    }
+
+    private static final class EndpointTotals {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder slowStatements = new LongAdder();
+        final LongAdder dbNanos = new LongAdder();
+        final LongAccumulator maxDbNanos = new LongAccumulator(Math::max, 0);
+
+        void add(RequestQueries queries) {
+            requests.increment();
+            statements.add(queries.getStatements());
+            slowStatements.add(queries.getSlowStatements());
+            dbNanos.add(queries.getDbNanos());
+            maxDbNanos.accumulate(queries.getDbNanos());
+        }
+
+        EndpointSqlStatsDTO toDTO(String endpoint) {
+            long count = requests.sum();
+            double millis = dbNanos.sum() / 1_000_000.0;
+            long statementCount = statements.sum();
+            return EndpointSqlStatsDTO.builder()
+                    .endpoint(endpoint)
+                    .requests(count)
+                    .statements(statementCount)
+                    .slowStatements(slowStatements.sum())
+                    .dbMillis(millis)
+                    .avgDbMillis(count == 0 ? 0 : millis / count)
+                    .maxDbMillis(maxDbNanos.get() / 1_000_000.0)
+                    .avgStatements(count == 0 ? 0 : (double) statementCount / count)
+                    .build();
+        }
+    }
+}
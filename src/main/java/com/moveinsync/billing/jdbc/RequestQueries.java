@@ -0,0 +1,41 @@
+package com.moveinsync.billing.jdbc;
+
+/**
+ * Statements run on the current request's thread. Only that thread
+ * touches it, so the counters are plain fields.
+ */
+final class RequestQueries {
+
+    private final String request;
+    private int statements;
+    private long dbNanos;
+    private int slowStatements;
+
+    RequestQueries(String request) {
+        this.request = request;
+    }
+
+    void add(long nanos, boolean slow) {
+        statements++;
+        dbNanos += nanos;
+        if (slow) {
+            slowStatements++;
+        }
+    }
+
+    String getRequest() {
+        return request;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getDbNanos() {
+        return dbNanos;
+    }
+
+    int getSlowStatements() {
+        return slowStatements;
+    }
+}
@@ -0,0 +1,103 @@
+package com.moveinsync.billing.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Counts the statements and DB time of each API request and reports them
+ * in a Server-Timing header, e.g. {@code db;dur=12.4;desc="7 queries"},
+ * added just before the body starts so it covers the handler's queries.
+ * Totals go to the request's endpoint (method and path pattern) in
+ * {@link QueryRecorder}.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final QueryRecorder recorder;
+
+    public ServerTimingFilter(QueryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueries queries = recorder.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        TimingResponse timed = new TimingResponse(response, queries);
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            timed.addTimingHeader();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            recorder.endRequest(queries, request.getMethod() + " "
+                    + (pattern != null ? pattern : "(unmapped)"));
+        }
+    }
+
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestQueries queries;
+        private boolean headerAdded;
+
+        TimingResponse(HttpServletResponse response, RequestQueries queries) {
+            super(response);
+            this.queries = queries;
+        }
+
+        void addTimingHeader() {
+            if (headerAdded || isCommitted()) {
+                return;
+            }
+            headerAdded = true;
+            addHeader(SERVER_TIMING, String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d queries\"",
+                    queries.getDbNanos() / 1_000_000.0, queries.getStatements()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.moveinsync.billing.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of the trip attributes billing strategies depend on.
+ * Implemented by the Trip entity and by detached snapshots, so the same
+ * strategy code prices persisted trips and simulations alike.
+ */
+public interface BillableTrip {
+
+    Long getId();
+
+    LocalDateTime getTripDate();
+
+    BigDecimal getDistanceKm();
+
+    BigDecimal getDurationHours();
+}
@@ -56,6 +56,10 @@ public class BillingConfiguration extends BaseEntity {
     @Column(precision = 10, scale = 2)
     private BigDecimal standardHoursPerTrip;
 
+    // Incentive rule program (see IncentiveRuleParser); null keeps the default rules
+    @Column(columnDefinition = "text")
+    private String incentiveRules;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean active = true;
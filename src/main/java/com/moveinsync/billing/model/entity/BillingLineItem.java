@@ -0,0 +1,71 @@
+package com.moveinsync.billing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-trip cost breakdown of a billing record.
+ * Append-only and written in bulk with COPY at month close, so billing never
+ * rewrites rows of the hot trips table. Keyed by (billing record, trip),
+ * which also orders a record's items for keyset paging.
+ */
+@Entity
+@Table(name = "billing_line_items", indexes = {
+        @Index(name = "idx_line_item_trip", columnList = "tripId"),
+        @Index(name = "idx_line_item_vendor_date", columnList = "vendorId,tripDate"),
+        @Index(name = "idx_line_item_employee_date", columnList = "employeeId,tripDate")
+})
+@IdClass(BillingLineItem.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillingLineItem {
+
+    @Id
+    private Long billingRecordId;
+
+    @Id
+    private Long tripId;
+
+    // Denormalized from the trip so reports aggregate without joining trips
+    @Column(nullable = false)
+    private Long vendorId;
+
+    @Column(nullable = false)
+    private Long employeeId;
+
+    @Column(nullable = false)
+    private LocalDateTime tripDate;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal baseCost;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal extraKilometers;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal extraHours;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal vendorIncentive;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal employeeIncentive;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal totalCost;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long billingRecordId;
+        private Long tripId;
+    }
+}
@@ -6,8 +6,6 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
 @Table(name = "billing_records", indexes = {
@@ -53,10 +51,4 @@ public class BillingRecord extends BaseEntity {
     @Column(nullable = false)
     @Builder.Default
     private LocalDate generatedDate = LocalDate.now();
-
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "billing_record_id")
-    @JsonIgnoreProperties({"vendor", "employee"})
-    @Builder.Default
-    private List<Trip> trips = new ArrayList<>();
 }
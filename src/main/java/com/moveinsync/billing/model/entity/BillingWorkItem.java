@@ -0,0 +1,56 @@
+package com.moveinsync.billing.model.entity;
+
+import com.moveinsync.billing.model.enums.WorkItemStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One vendor-month of a cluster-wide month close.
+ * Nodes claim PENDING items, or CLAIMED items whose lease has run out, with
+ * FOR UPDATE SKIP LOCKED and keep their lease alive by heartbeat. Lease
+ * times come from the database clock, so node clocks need not agree.
+ */
+@Entity
+@Table(name = "billing_work_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_billing_work_item_period",
+                columnNames = {"vendorId", "billingMonth", "billingYear"})
+}, indexes = {
+        @Index(name = "idx_billing_work_item_status", columnList = "status,leaseUntil")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillingWorkItem extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long vendorId;
+
+    @Column(nullable = false)
+    private Integer billingMonth;
+
+    @Column(nullable = false)
+    private Integer billingYear;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WorkItemStatus status;
+
+    // Node holding the lease while CLAIMED
+    @Column(length = 128)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    private Long billingRecordId;
+
+    @Column(length = 1000)
+    private String lastError;
+}
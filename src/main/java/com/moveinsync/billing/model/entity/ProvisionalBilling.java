@@ -0,0 +1,66 @@
+package com.moveinsync.billing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Month-to-date billing of one vendor as of a day, priced like a
+ * BillingRecord but never final: it neither locks the month nor writes
+ * line items. Carries a projection of the month-end figures.
+ */
+@Entity
+@Table(name = "provisional_billings", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_provisional_billing_vendor_date", columnNames = {"vendorId", "asOfDate"})
+}, indexes = {
+        @Index(name = "idx_provisional_billing_date", columnList = "asOfDate")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProvisionalBilling extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long vendorId;
+
+    // Last day included in the month-to-date figures
+    @Column(nullable = false)
+    private LocalDate asOfDate;
+
+    @Column(nullable = false)
+    private Integer billingMonth;
+
+    @Column(nullable = false)
+    private Integer billingYear;
+
+    @Column(nullable = false)
+    private Integer daysElapsed;
+
+    @Column(nullable = false)
+    private Integer daysInMonth;
+
+    @Column(nullable = false)
+    private Integer totalTrips;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalDistance;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal baseBilling;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalIncentives;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private Integer projectedTrips;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal projectedAmount;
+}
@@ -0,0 +1,37 @@
+package com.moveinsync.billing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Persisted route analytics summary for one client or vendor and month.
+ */
+@Entity
+@Table(name = "route_sketch_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_route_sketch_scope",
+                columnNames = {"scopeType", "scopeId", "sketchYear", "sketchMonth"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteSketchSnapshot extends BaseEntity {
+
+    // CLIENT or VENDOR
+    @Column(nullable = false, length = 16)
+    private String scopeType;
+
+    @Column(nullable = false)
+    private Long scopeId;
+
+    @Column(nullable = false)
+    private Integer sketchYear;
+
+    @Column(nullable = false)
+    private Integer sketchMonth;
+
+    // Serialized RouteSummary (bytea)
+    @Column(nullable = false)
+    private byte[] payload;
+}
@@ -1,6 +1,7 @@
 package com.moveinsync.billing.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.moveinsync.billing.model.BillableTrip;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -19,7 +20,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Trip extends BaseEntity {
+public class Trip extends BaseEntity implements BillableTrip {
 
     @Column(nullable = false, unique = true)
     private String tripCode;
@@ -53,6 +54,8 @@ public class Trip extends BaseEntity {
     @Column(precision = 10, scale = 2)
     private BigDecimal extraHours;
 
+    // Billing state and charges below are legacy: billing now writes
+    // billing_line_items and leaves trip rows untouched
     @Column(nullable = false)
     @Builder.Default
     private Boolean processed = false;
@@ -0,0 +1,44 @@
+package com.moveinsync.billing.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Distance and duration histograms of one vendor's trips on one day.
+ * Rows merge into percentile reports for any date range.
+ */
+@Entity
+@Table(name = "trip_histograms", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_trip_histogram_vendor_day", columnNames = {"vendorId", "histogramDate"})
+}, indexes = {
+        @Index(name = "idx_trip_histogram_client_day", columnList = "clientId, histogramDate")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripHistogram extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long vendorId;
+
+    @Column(nullable = false)
+    private Long clientId;
+
+    @Column(nullable = false)
+    private LocalDate histogramDate;
+
+    @Column(nullable = false)
+    private Long tripCount;
+
+    // Serialized LogHistogram of distanceKm (bytea)
+    @Column(nullable = false)
+    private byte[] distanceHistogram;
+
+    // Serialized LogHistogram of durationHours (bytea)
+    @Column(nullable = false)
+    private byte[] durationHistogram;
+}
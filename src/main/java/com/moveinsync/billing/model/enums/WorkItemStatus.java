@@ -0,0 +1,8 @@
+package com.moveinsync.billing.model.enums;
+
+public enum WorkItemStatus {
+    PENDING,
+    CLAIMED,
+    DONE,
+    FAILED
+}
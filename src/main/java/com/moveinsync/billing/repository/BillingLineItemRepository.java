@@ -0,0 +1,46 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.dto.LineItemTotalsDTO;
+import com.moveinsync.billing.model.entity.BillingLineItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BillingLineItemRepository extends JpaRepository<BillingLineItem, BillingLineItem.Key> {
+
+    // Keyset page over the primary key (billing_record_id, trip_id)
+    @Query("SELECT li FROM BillingLineItem li WHERE li.billingRecordId = :recordId " +
+           "AND li.tripId > :afterTripId ORDER BY li.tripId")
+    List<BillingLineItem> findPage(
+            @Param("recordId") Long recordId,
+            @Param("afterTripId") long afterTripId,
+            Pageable pageable
+    );
+
+    @Query("SELECT new com.moveinsync.billing.dto.LineItemTotalsDTO(li.vendorId, COUNT(li), " +
+           "SUM(li.extraHours), SUM(li.employeeIncentive), SUM(li.totalCost)) " +
+           "FROM BillingLineItem li WHERE li.vendorId IN " +
+           "(SELECT v.id FROM Vendor v WHERE v.client.id = :clientId) " +
+           "AND li.tripDate BETWEEN :startDate AND :endDate GROUP BY li.vendorId")
+    List<LineItemTotalsDTO> sumByVendorForClient(
+            @Param("clientId") Long clientId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.moveinsync.billing.dto.LineItemTotalsDTO(li.employeeId, COUNT(li), " +
+           "SUM(li.extraHours), SUM(li.employeeIncentive), SUM(li.totalCost)) " +
+           "FROM BillingLineItem li WHERE li.employeeId = :employeeId " +
+           "AND li.tripDate BETWEEN :startDate AND :endDate GROUP BY li.employeeId")
+    List<LineItemTotalsDTO> sumForEmployee(
+            @Param("employeeId") Long employeeId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+}
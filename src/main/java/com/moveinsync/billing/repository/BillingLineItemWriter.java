@@ -0,0 +1,107 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.bulk.BulkProgress;
+import com.moveinsync.billing.bulk.PgBinaryCopy;
+import com.moveinsync.billing.model.entity.BillingLineItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Bulk writer for billing line items.
+ * Streams rows with PostgreSQL binary COPY on the caller's transactional
+ * connection, so items commit or roll back with their billing record.
+ * Falls back to JDBC batch inserts on other drivers.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class BillingLineItemWriter {
+
+    private static final String COLUMNS = "billing_record_id, trip_id, vendor_id, employee_id, trip_date, " +
+            "base_cost, extra_kilometers, extra_hours, vendor_incentive, employee_incentive, total_cost";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+
+    @Value("${billing.bulk.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    @Value("${billing.bulk.progress-interval-rows:100000}")
+    private long progressInterval;
+
+    public void write(List<BillingLineItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (copyEnabled && connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), items);
+            } else {
+                batchInsert(connection, items);
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not write " + items.size() + " billing line items", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void copy(PGConnection connection, List<BillingLineItem> items) throws SQLException, IOException {
+        try (PgBinaryCopy copy = PgBinaryCopy.open(connection, "billing_line_items", COLUMNS, items.size(),
+                progressInterval, BulkProgress.logTo(log))) {
+            for (BillingLineItem item : items) {
+                copy.startRow(11)
+                        .int8(item.getBillingRecordId())
+                        .int8(item.getTripId())
+                        .int8(item.getVendorId())
+                        .int8(item.getEmployeeId())
+                        .timestamp(item.getTripDate())
+                        .numeric(item.getBaseCost())
+                        .numeric(item.getExtraKilometers())
+                        .numeric(item.getExtraHours())
+                        .numeric(item.getVendorIncentive())
+                        .numeric(item.getEmployeeIncentive())
+                        .numeric(item.getTotalCost());
+            }
+            copy.finish();
+        }
+    }
+
+    private void batchInsert(Connection connection, List<BillingLineItem> items) throws SQLException {
+        String sql = "INSERT INTO billing_line_items (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (BillingLineItem item : items) {
+                statement.setLong(1, item.getBillingRecordId());
+                statement.setLong(2, item.getTripId());
+                statement.setLong(3, item.getVendorId());
+                statement.setLong(4, item.getEmployeeId());
+                statement.setTimestamp(5, Timestamp.valueOf(item.getTripDate()));
+                statement.setBigDecimal(6, item.getBaseCost());
+                statement.setBigDecimal(7, item.getExtraKilometers());
+                statement.setBigDecimal(8, item.getExtraHours());
+                statement.setBigDecimal(9, item.getVendorIncentive());
+                statement.setBigDecimal(10, item.getEmployeeIncentive());
+                statement.setBigDecimal(11, item.getTotalCost());
+                statement.addBatch();
+                if (++pending == INSERT_BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.moveinsync.billing.repository;
 
 import com.moveinsync.billing.model.entity.BillingRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BillingRecordRepository extends JpaRepository<BillingRecord, Long> {
@@ -17,4 +20,7 @@ public interface BillingRecordRepository extends JpaRepository<BillingRecord, Lo
     List<BillingRecord> findByBillingMonthAndBillingYear(Integer month, Integer year);
 
     List<BillingRecord> findByVendorId(Long vendorId);
+
+    @Query("SELECT r.vendor.id FROM BillingRecord r WHERE r.billingMonth = :month AND r.billingYear = :year")
+    Set<Long> findBilledVendorIds(@Param("month") Integer month, @Param("year") Integer year);
 }
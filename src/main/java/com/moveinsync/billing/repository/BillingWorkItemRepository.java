@@ -0,0 +1,80 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.dto.WorkItemCountDTO;
+import com.moveinsync.billing.model.entity.BillingWorkItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BillingWorkItemRepository extends JpaRepository<BillingWorkItem, Long> {
+
+    /**
+     * One item per configured vendor; existing items are left alone, so
+     * concurrent enqueues from several nodes are safe.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO billing_work_items " +
+            "(id, vendor_id, billing_month, billing_year, status, attempts, created_at, updated_at) " +
+            "SELECT nextval('billing_work_item_seq'), c.vendor_id, :month, :year, 'PENDING', 0, now(), now() " +
+            "FROM billing_configurations c " +
+            "ON CONFLICT (vendor_id, billing_month, billing_year) DO NOTHING", nativeQuery = true)
+    int enqueueMonth(@Param("month") int month, @Param("year") int year);
+
+    @Modifying
+    @Query(value = "UPDATE billing_work_items SET status = 'PENDING', attempts = 0, last_error = NULL, " +
+            "updated_at = now() WHERE status = 'FAILED' AND billing_month = :month AND billing_year = :year",
+            nativeQuery = true)
+    int resetFailed(@Param("month") int month, @Param("year") int year);
+
+    // Rows locked by another node's claim are skipped, not waited on
+    @Query(value = "SELECT * FROM billing_work_items " +
+            "WHERE status = 'PENDING' " +
+            "OR (status = 'CLAIMED' AND lease_until < now() AND attempts < :maxAttempts) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BillingWorkItem> lockClaimable(@Param("limit") int limit, @Param("maxAttempts") int maxAttempts);
+
+    // Expired leases with no attempts left: the item keeps killing its node, so stop handing it out
+    @Modifying
+    @Query(value = "UPDATE billing_work_items SET status = 'FAILED', owner = NULL, lease_until = NULL, " +
+            "last_error = 'Lease expired on every attempt', updated_at = now() " +
+            "WHERE status = 'CLAIMED' AND lease_until < now() AND attempts >= :maxAttempts", nativeQuery = true)
+    int failExpired(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE billing_work_items SET status = 'CLAIMED', owner = :owner, " +
+            "lease_until = now() + make_interval(secs => :leaseSeconds), attempts = attempts + 1, " +
+            "updated_at = now() WHERE id IN :ids", nativeQuery = true)
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE billing_work_items SET lease_until = now() + make_interval(secs => :leaseSeconds), " +
+            "updated_at = now() WHERE id IN :ids AND owner = :owner AND status = 'CLAIMED'", nativeQuery = true)
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                  @Param("leaseSeconds") long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE billing_work_items SET status = 'DONE', billing_record_id = :recordId, " +
+            "lease_until = NULL, last_error = NULL, updated_at = now() " +
+            "WHERE id = :id AND owner = :owner AND status = 'CLAIMED'", nativeQuery = true)
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("recordId") Long recordId);
+
+    // Back to PENDING for another node, or FAILED once attempts are used up
+    @Modifying
+    @Query(value = "UPDATE billing_work_items SET " +
+            "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, " +
+            "owner = NULL, lease_until = NULL, last_error = :error, updated_at = now() " +
+            "WHERE id = :id AND owner = :owner AND status = 'CLAIMED'", nativeQuery = true)
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("error") String error,
+                @Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT new com.moveinsync.billing.dto.WorkItemCountDTO(w.status, COUNT(w)) " +
+            "FROM BillingWorkItem w WHERE w.billingMonth = :month AND w.billingYear = :year GROUP BY w.status")
+    List<WorkItemCountDTO> countByStatus(@Param("month") int month, @Param("year") int year);
+}
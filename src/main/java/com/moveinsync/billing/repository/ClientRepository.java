@@ -1,9 +1,14 @@
 package com.moveinsync.billing.repository;
 
+import com.moveinsync.billing.dto.ClientDTO;
 import com.moveinsync.billing.model.entity.Client;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,9 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByClientCode(String clientCode);
     Optional<Client> findByEmail(String email);
     boolean existsByClientCode(String clientCode);
+
+    @Query("SELECT new com.moveinsync.billing.dto.ClientDTO(" +
+            "c.id, c.clientCode, c.name, c.email, c.phone, c.address, c.active) " +
+            "FROM Client c WHERE c.id > :afterId ORDER BY c.id")
+    List<ClientDTO> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,7 +1,11 @@
 package com.moveinsync.billing.repository;
 
+import com.moveinsync.billing.dto.EmployeeSummaryDTO;
 import com.moveinsync.billing.model.entity.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +15,9 @@ import java.util.Optional;
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmployeeCode(String employeeCode);
     List<Employee> findByClientId(Long clientId);
+
+    @Query("SELECT new com.moveinsync.billing.dto.EmployeeSummaryDTO(" +
+            "e.id, e.employeeCode, e.name, e.email, e.phone, e.active, e.client.id) " +
+            "FROM Employee e WHERE e.id > :afterId ORDER BY e.id")
+    List<EmployeeSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
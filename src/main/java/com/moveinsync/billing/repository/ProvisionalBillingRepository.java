@@ -0,0 +1,34 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.model.entity.ProvisionalBilling;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProvisionalBillingRepository extends JpaRepository<ProvisionalBilling, Long> {
+
+    List<ProvisionalBilling> findByAsOfDateOrderByVendorId(LocalDate asOfDate);
+
+    boolean existsByAsOfDate(LocalDate asOfDate);
+
+    List<ProvisionalBilling> findByVendorIdAndBillingMonthAndBillingYearOrderByAsOfDate(
+            Long vendorId, Integer month, Integer year
+    );
+
+    @Modifying
+    @Query("DELETE FROM ProvisionalBilling p WHERE p.asOfDate = :asOfDate")
+    int deleteByAsOfDate(@Param("asOfDate") LocalDate asOfDate);
+
+    /**
+     * Non-blocking cluster-wide lock held until the current transaction
+     * ends; false when another node holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryLock(@Param("key") long key);
+}
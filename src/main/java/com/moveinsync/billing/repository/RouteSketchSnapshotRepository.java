@@ -0,0 +1,27 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.model.entity.RouteSketchSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RouteSketchSnapshotRepository extends JpaRepository<RouteSketchSnapshot, Long> {
+    Optional<RouteSketchSnapshot> findByScopeTypeAndScopeIdAndSketchYearAndSketchMonth(
+            String scopeType, Long scopeId, Integer sketchYear, Integer sketchMonth
+    );
+
+    // Row lock so concurrent snapshots from several nodes merge instead of overwrite
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM RouteSketchSnapshot s WHERE s.scopeType = :scopeType AND s.scopeId = :scopeId " +
+            "AND s.sketchYear = :year AND s.sketchMonth = :month")
+    Optional<RouteSketchSnapshot> findForUpdate(@Param("scopeType") String scopeType,
+                                                @Param("scopeId") Long scopeId,
+                                                @Param("year") Integer year,
+                                                @Param("month") Integer month);
+}
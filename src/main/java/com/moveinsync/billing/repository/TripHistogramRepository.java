@@ -0,0 +1,31 @@
+package com.moveinsync.billing.repository;
+
+import com.moveinsync.billing.model.entity.TripHistogram;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TripHistogramRepository extends JpaRepository<TripHistogram, Long> {
+
+    List<TripHistogram> findByVendorIdAndHistogramDateBetween(Long vendorId, LocalDate from, LocalDate to);
+
+    List<TripHistogram> findByClientIdAndHistogramDateBetween(Long clientId, LocalDate from, LocalDate to);
+
+    // Row lock so concurrent flushes from several nodes merge instead of overwrite
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM TripHistogram h WHERE h.vendorId = :vendorId AND h.histogramDate = :day")
+    Optional<TripHistogram> findForUpdate(@Param("vendorId") Long vendorId, @Param("day") LocalDate day);
+
+    @Modifying
+    @Query("DELETE FROM TripHistogram h WHERE h.histogramDate BETWEEN :from AND :to")
+    int deleteByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,17 +1,33 @@
 package com.moveinsync.billing.repository;
 
+import com.moveinsync.billing.analytics.TripMeasurement;
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.dto.TripSnapshot;
+import com.moveinsync.billing.dto.TripStamp;
+import com.moveinsync.billing.dto.VendorTripStamp;
 import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.validation.TripInterval;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
+    // Per-row hash for trip stamps; covers the id, so it changes with the set of rows, not just its maximum
+    String ROW_HASH = "CAST(FUNCTION('hashtext', CONCAT(CAST(t.id AS String), '|', " +
+            "COALESCE(CAST(t.updatedAt AS String), ''))) AS Long)";
+
     List<Trip> findByVendorIdAndTripDateBetween(
             Long vendorId, LocalDateTime startDate, LocalDateTime endDate
     );
@@ -28,6 +44,111 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
             @Param("endDate") LocalDateTime endDate
     );
 
-    @Query("SELECT t FROM Trip t WHERE t.processed = false")
+    @Query("SELECT new com.moveinsync.billing.dto.TripSnapshot(" +
+            "t.id, t.tripDate, t.distanceKm, t.durationHours) " +
+            "FROM Trip t WHERE t.vendor.id = :vendorId " +
+            "AND t.tripDate BETWEEN :startDate AND :endDate ORDER BY t.tripDate, t.id")
+    List<TripSnapshot> findSnapshotsByVendorIdAndDateRange(
+            @Param("vendorId") Long vendorId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.moveinsync.billing.dto.TripBillingRow(t.id, t.vendor.id, t.employee.id, " +
+            "t.tripDate, t.distanceKm, t.durationHours, t.source, t.destination) " +
+            "FROM Trip t WHERE t.vendor.id = :vendorId " +
+            "AND t.tripDate BETWEEN :startDate AND :endDate ORDER BY t.tripDate, t.id")
+    List<TripBillingRow> findBillingRowsByVendorIdAndDateRange(
+            @Param("vendorId") Long vendorId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // Every vendor's trips in one cursor, partitioned by vendor for month close
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.moveinsync.billing.dto.TripBillingRow(t.id, t.vendor.id, t.employee.id, " +
+            "t.tripDate, t.distanceKm, t.durationHours, t.source, t.destination) " +
+            "FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate ORDER BY t.vendor.id, t.tripDate, t.id")
+    Stream<TripBillingRow> streamBillingRowsByDateRange(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.moveinsync.billing.dto.TripStamp(COUNT(t), SUM(" + ROW_HASH + ")) " +
+            "FROM Trip t WHERE t.vendor.id = :vendorId AND t.tripDate BETWEEN :startDate AND :endDate")
+    TripStamp findStampByVendorIdAndDateRange(
+            @Param("vendorId") Long vendorId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // Same stamp as findStampByVendorIdAndDateRange, for every vendor with trips in the period
+    @Query("SELECT new com.moveinsync.billing.dto.VendorTripStamp(t.vendor.id, COUNT(t), SUM(" + ROW_HASH + ")) " +
+            "FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate GROUP BY t.vendor.id")
+    List<VendorTripStamp> findStampsByDateRange(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT t.tripCode FROM Trip t WHERE t.tripCode IN :codes")
+    List<String> findExistingTripCodes(@Param("codes") Collection<String> codes);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT t.tripCode FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate")
+    Stream<String> streamTripCodes(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.moveinsync.billing.analytics.TripMeasurement(" +
+           "t.vendor.id, t.vendor.client.id, t.tripDate, t.distanceKm, t.durationHours) " +
+           "FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate")
+    Stream<TripMeasurement> streamMeasurements(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    long countByTripDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT MAX(t.id) FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate")
+    Long findMaxIdByTripDateBetween(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.moveinsync.billing.validation.TripInterval(" +
+            "t.id, t.tripCode, t.employee.id, t.vendor.id, t.tripDate, t.durationHours) " +
+            "FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate")
+    List<TripInterval> findIntervalsByDateRange(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    @Query("SELECT new com.moveinsync.billing.validation.TripInterval(" +
+            "t.id, t.tripCode, t.employee.id, t.vendor.id, t.tripDate, t.durationHours) " +
+            "FROM Trip t WHERE t.employee.id IN :employeeIds " +
+            "AND t.tripDate BETWEEN :startDate AND :endDate")
+    List<TripInterval> findIntervalsByEmployeeIds(
+            @Param("employeeIds") Collection<Long> employeeIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // Every trip in the period of any employee who rode with the vendor in that period
+    @Query("SELECT new com.moveinsync.billing.validation.TripInterval(" +
+            "t.id, t.tripCode, t.employee.id, t.vendor.id, t.tripDate, t.durationHours) " +
+            "FROM Trip t WHERE t.tripDate BETWEEN :startDate AND :endDate " +
+            "AND t.employee.id IN (SELECT v.employee.id FROM Trip v WHERE v.vendor.id = :vendorId " +
+            "AND v.tripDate BETWEEN :startDate AND :endDate)")
+    List<TripInterval> findIntervalsForVendorEmployees(
+            @Param("vendorId") Long vendorId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // A trip is billed once it has a line item; trips rows are never updated at month close
+    @Query("SELECT t FROM Trip t WHERE NOT EXISTS " +
+           "(SELECT 1 FROM BillingLineItem li WHERE li.tripId = t.id)")
     List<Trip> findUnprocessedTrips();
 }
@@ -1,8 +1,13 @@
 package com.moveinsync.billing.repository;
 
+import com.moveinsync.billing.dto.VendorSummaryDTO;
 import com.moveinsync.billing.model.entity.Vendor;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +20,24 @@ public interface VendorRepository extends JpaRepository<Vendor, Long> {
 
     @Query("SELECT v FROM Vendor v JOIN FETCH v.billingConfiguration WHERE v.id = :id")
     Optional<Vendor> findByIdWithBillingConfig(Long id);
+
+    // Serializes month closes of one vendor; readers are not blocked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vendor v WHERE v.id = :id")
+    Optional<Vendor> findForUpdate(@Param("id") Long id);
+
+    @Query("SELECT v.client.id FROM Vendor v WHERE v.id = :id")
+    Optional<Long> findClientIdById(@Param("id") Long id);
+
+    @Query("SELECT v.id FROM Vendor v ORDER BY v.id")
+    List<Long> findAllIds();
+
+    /**
+     * Keyset page of flat vendor rows ordered by id.
+     * Seeks on the primary key index, so cost is independent of page depth.
+     */
+    @Query("SELECT new com.moveinsync.billing.dto.VendorSummaryDTO(" +
+            "v.id, v.vendorCode, v.name, v.email, v.phone, v.active, v.client.id) " +
+            "FROM Vendor v WHERE v.id > :afterId ORDER BY v.id")
+    List<VendorSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
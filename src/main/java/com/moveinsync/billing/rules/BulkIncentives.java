@@ -0,0 +1,112 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.model.BillableTrip;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.strategy.TripCharge;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Default incentive rules evaluated for a whole trip list at once over
+ * primitive fixed-point columns.
+ *
+ * Inputs are taken as hundredths (the scale of every distance, duration and
+ * rate column), so extra km/hours are exact longs, incentives are exact in
+ * 10^-4 (vendor) and 10^-5 (employee, the 0.5 share) units, and the
+ * resulting BigDecimals equal the scalar program's, scale included. The
+ * kernel is a branch-free loop over long[] that the JIT can vectorize.
+ */
+public final class BulkIncentives implements TripIncentives {
+
+    private static final int INPUT_SCALE = 2;
+    private static final int VENDOR_SCALE = 4;
+    private static final int EMPLOYEE_SCALE = 5;
+    // Inputs up to 10^8 hundredths keep every product and sum within a long
+    private static final int MAX_PRECISION = 8;
+    private static final long NOT_FIXED_POINT = Long.MIN_VALUE;
+
+    private final long[] extraKm;
+    private final long[] extraHours;
+    private final long[] vendorIncentive;
+    private final long[] employeeIncentive;
+
+    private BulkIncentives(int size) {
+        this.extraKm = new long[size];
+        this.extraHours = new long[size];
+        this.vendorIncentive = new long[size];
+        this.employeeIncentive = new long[size];
+    }
+
+    /**
+     * Computes default-rule incentives for all trips, or returns null when
+     * some value is not a two-decimal number within range, in which case
+     * the caller must use the scalar program.
+     * Time Complexity: O(n)
+     */
+    static BulkIncentives compute(List<? extends BillableTrip> trips, BillingConfiguration config) {
+        long standardKm = hundredths(config.getStandardKilometersPerTrip());
+        long standardHours = hundredths(config.getStandardHoursPerTrip());
+        long kmRate = hundredths(config.getExtraKilometerRate());
+        long hourRate = hundredths(config.getExtraHourRate());
+        if (standardKm == NOT_FIXED_POINT || standardHours == NOT_FIXED_POINT
+                || kmRate == NOT_FIXED_POINT || hourRate == NOT_FIXED_POINT) {
+            return null;
+        }
+
+        int size = trips.size();
+        long[] distance = new long[size];
+        long[] duration = new long[size];
+        for (int i = 0; i < size; i++) {
+            BillableTrip trip = trips.get(i);
+            distance[i] = hundredths(trip.getDistanceKm());
+            duration[i] = hundredths(trip.getDurationHours());
+            if (distance[i] == NOT_FIXED_POINT || duration[i] == NOT_FIXED_POINT) {
+                return null;
+            }
+        }
+
+        BulkIncentives result = new BulkIncentives(size);
+        result.kernel(distance, duration, standardKm, standardHours, kmRate, hourRate);
+        return result;
+    }
+
+    private void kernel(long[] distance, long[] duration, long standardKm, long standardHours,
+                        long kmRate, long hourRate) {
+        for (int i = 0; i < distance.length; i++) {
+            long km = distance[i] - standardKm;
+            long hours = duration[i] - standardHours;
+            long hourIncentive = Math.max(hours, 0) * hourRate;
+            extraKm[i] = km;
+            extraHours[i] = hours;
+            vendorIncentive[i] = Math.max(km, 0) * kmRate + hourIncentive;
+            employeeIncentive[i] = hourIncentive * 5;
+        }
+    }
+
+    /**
+     * Line item of the trip at {@code index}, equal to what
+     * {@link IncentiveProgram#evaluate} returns for the default rules.
+     */
+    @Override
+    public TripCharge charge(int index, BillableTrip trip) {
+        long km = extraKm[index];
+        long hours = extraHours[index];
+        return TripCharge.builder()
+                .tripId(trip.getId())
+                .extraKilometers(km > 0 ? BigDecimal.valueOf(km, INPUT_SCALE) : null)
+                .extraHours(hours > 0 ? BigDecimal.valueOf(hours, INPUT_SCALE) : null)
+                .vendorIncentive(km > 0 || hours > 0
+                        ? BigDecimal.valueOf(vendorIncentive[index], VENDOR_SCALE) : BigDecimal.ZERO)
+                .employeeIncentive(hours > 0
+                        ? BigDecimal.valueOf(employeeIncentive[index], EMPLOYEE_SCALE) : BigDecimal.ZERO)
+                .build();
+    }
+
+    private static long hundredths(BigDecimal value) {
+        if (value == null || value.scale() != INPUT_SCALE || value.precision() > MAX_PRECISION) {
+            return NOT_FIXED_POINT;
+        }
+        return value.unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.model.BillableTrip;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.strategy.TripCharge;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compiled incentive rules: each rule is a condition and an amount, both
+ * already reduced to lambdas, so evaluating a trip is a walk over a few
+ * closures with no parsing or lookups. Immutable and thread-safe.
+ */
+public final class IncentiveProgram {
+
+    private final String source;
+    private final List<Rule> vendorRules;
+    private final List<Rule> employeeRules;
+
+    IncentiveProgram(String source, List<Rule> vendorRules, List<Rule> employeeRules) {
+        this.source = source;
+        this.vendorRules = List.copyOf(vendorRules);
+        this.employeeRules = List.copyOf(employeeRules);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Sums the amounts of all matching rules per target, in rule order.
+     * extraKilometers/extraHours report the positive excess over the
+     * configured standard regardless of which rules apply.
+     */
+    public TripCharge evaluate(BillableTrip trip, BillingConfiguration config) {
+        RuleContext context = new RuleContext(trip, config);
+        return TripCharge.builder()
+                .tripId(trip.getId())
+                .extraKilometers(context.extraKm.compareTo(BigDecimal.ZERO) > 0 ? context.extraKm : null)
+                .extraHours(context.extraHours.compareTo(BigDecimal.ZERO) > 0 ? context.extraHours : null)
+                .vendorIncentive(sum(vendorRules, context))
+                .employeeIncentive(sum(employeeRules, context))
+                .build();
+    }
+
+    private static BigDecimal sum(List<Rule> rules, RuleContext context) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Rule rule : rules) {
+            if (rule.condition.test(context)) {
+                total = total.add(rule.amount.apply(context));
+            }
+        }
+        return total;
+    }
+
+    static final class Rule {
+        final Predicate<RuleContext> condition;
+        final Function<RuleContext, BigDecimal> amount;
+
+        Rule(Predicate<RuleContext> condition, Function<RuleContext, BigDecimal> amount) {
+            this.condition = condition;
+            this.amount = amount;
+        }
+    }
+}
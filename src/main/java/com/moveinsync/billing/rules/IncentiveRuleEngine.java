@@ -0,0 +1,70 @@
+package com.moveinsync.billing.rules;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moveinsync.billing.model.BillableTrip;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Compiles and caches the incentive rules of billing configurations.
+ * Programs are cached by rule text, so every version of a configuration is
+ * compiled once and configurations sharing rules share one program.
+ * Configurations without rules use {@link #DEFAULT_RULES}, which reproduces
+ * the original fixed incentives exactly.
+ */
+@Component
+public class IncentiveRuleEngine {
+
+    public static final String DEFAULT_RULES = String.join("\n",
+            "vendor when extra_km > 0 = extra_km * km_rate",
+            "vendor when extra_hours > 0 = extra_hours * hour_rate",
+            "# Employee gets 50% of extra hour incentive",
+            "employee when extra_hours > 0 = extra_hours * hour_rate * 0.5");
+
+    private final Cache<String, IncentiveProgram> programs = Caffeine.newBuilder()
+            .maximumSize(512)
+            .build();
+
+    // Evaluate default rules over primitive columns for lists at least this long
+    @Value("${billing.incentives.bulk-enabled:true}")
+    private boolean bulkEnabled;
+
+    @Value("${billing.incentives.bulk-min-trips:64}")
+    private int bulkMinTrips;
+
+    public IncentiveProgram programFor(BillingConfiguration config) {
+        return compile(usesDefaultRules(config) ? DEFAULT_RULES : config.getIncentiveRules());
+    }
+
+    /**
+     * Incentives for a whole trip list. Large lists under the default rules
+     * take the bulk fixed-point path; everything else, and any list with
+     * values the bulk path cannot represent exactly, uses the compiled
+     * program trip by trip. Both produce identical charges.
+     */
+    public TripIncentives incentivesFor(List<? extends BillableTrip> trips, BillingConfiguration config) {
+        if (bulkEnabled && trips.size() >= bulkMinTrips && usesDefaultRules(config)) {
+            BulkIncentives bulk = BulkIncentives.compute(trips, config);
+            if (bulk != null) {
+                return bulk;
+            }
+        }
+        IncentiveProgram program = programFor(config);
+        return (index, trip) -> program.evaluate(trip, config);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rules do not parse
+     */
+    public IncentiveProgram compile(String rules) {
+        return programs.get(rules, IncentiveRuleParser::compile);
+    }
+
+    private static boolean usesDefaultRules(BillingConfiguration config) {
+        return config.getIncentiveRules() == null || config.getIncentiveRules().isBlank();
+    }
+}
@@ -0,0 +1,313 @@
+package com.moveinsync.billing.rules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Recursive-descent parser that compiles incentive rule text straight into
+ * lambdas. One rule per line, '#' starts a comment:
+ *
+ * <pre>
+ * rule       := ("vendor" | "employee") ["when" condition] "=" expression
+ * condition  := and ("or" and)*
+ * and        := unary ("and" unary)*
+ * unary      := "not" unary | "weekend" | "(" condition ")" | expression compare expression
+ * compare    := "<" | "<=" | ">" | ">=" | "==" | "!="
+ * expression := term (("+" | "-") term)*
+ * term       := factor ("*" factor)*
+ * factor     := "-" factor | number | variable | ("min" | "max") "(" expression "," expression ")"
+ *             | "(" expression ")"
+ * </pre>
+ *
+ * Every matching rule adds its amount to the target's incentive, e.g.
+ * a tiered km rate with a night surcharge:
+ *
+ * <pre>
+ * vendor when extra_km > 0 = min(extra_km, 20) * km_rate
+ * vendor when extra_km > 20 = (extra_km - 20) * km_rate * 1.5
+ * vendor when hour >= 22 or hour < 6 = 100
+ * employee when weekend and extra_hours > 0 = extra_hours * hour_rate * 0.75
+ * </pre>
+ */
+final class IncentiveRuleParser {
+
+    private static final Map<String, Function<RuleContext, BigDecimal>> VARIABLES = Map.of(
+            "distance_km", context -> context.distanceKm,
+            "duration_hours", context -> context.durationHours,
+            "extra_km", context -> context.extraKm,
+            "extra_hours", context -> context.extraHours,
+            "hour", context -> context.hour,
+            "day_of_week", context -> context.dayOfWeek,
+            "km_rate", context -> context.kmRate,
+            "hour_rate", context -> context.hourRate,
+            "standard_km", context -> context.standardKm,
+            "standard_hours", context -> context.standardHours
+    );
+
+    private final String line;
+    private final int lineNumber;
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Integer> columns = new ArrayList<>();
+    private int position;
+
+    private IncentiveRuleParser(String line, int lineNumber) {
+        this.line = line;
+        this.lineNumber = lineNumber;
+        tokenize();
+    }
+
+    /**
+     * Parses and compiles a full rule set.
+     *
+     * @throws IllegalArgumentException with line and column on a syntax error
+     */
+    static IncentiveProgram compile(String source) {
+        List<IncentiveProgram.Rule> vendorRules = new ArrayList<>();
+        List<IncentiveProgram.Rule> employeeRules = new ArrayList<>();
+
+        String[] lines = source.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            int comment = lines[i].indexOf('#');
+            String text = comment >= 0 ? lines[i].substring(0, comment) : lines[i];
+            if (text.isBlank()) {
+                continue;
+            }
+            IncentiveRuleParser parser = new IncentiveRuleParser(text, i + 1);
+            String target = parser.next();
+            if (target.equals("vendor")) {
+                vendorRules.add(parser.parseRule());
+            } else if (target.equals("employee")) {
+                employeeRules.add(parser.parseRule());
+            } else {
+                throw parser.error(0, "expected 'vendor' or 'employee'");
+            }
+        }
+        return new IncentiveProgram(source, vendorRules, employeeRules);
+    }
+
+    private IncentiveProgram.Rule parseRule() {
+        Predicate<RuleContext> condition = context -> true;
+        if (accept("when")) {
+            condition = parseCondition();
+        }
+        expect("=");
+        Function<RuleContext, BigDecimal> amount = parseExpression();
+        if (position < tokens.size()) {
+            throw error(position, "unexpected '" + tokens.get(position) + "'");
+        }
+        return new IncentiveProgram.Rule(condition, amount);
+    }
+
+    private Predicate<RuleContext> parseCondition() {
+        Predicate<RuleContext> left = parseAnd();
+        while (accept("or")) {
+            left = left.or(parseAnd());
+        }
+        return left;
+    }
+
+    private Predicate<RuleContext> parseAnd() {
+        Predicate<RuleContext> left = parseUnaryCondition();
+        while (accept("and")) {
+            left = left.and(parseUnaryCondition());
+        }
+        return left;
+    }
+
+    private Predicate<RuleContext> parseUnaryCondition() {
+        if (accept("not")) {
+            return parseUnaryCondition().negate();
+        }
+        if (accept("weekend")) {
+            return context -> context.weekend;
+        }
+        if ("(".equals(peek()) && !isArithmeticOperand(position)) {
+            position++;
+            Predicate<RuleContext> grouped = parseCondition();
+            expect(")");
+            return grouped;
+        }
+        return parseComparison();
+    }
+
+    private Predicate<RuleContext> parseComparison() {
+        Function<RuleContext, BigDecimal> left = parseExpression();
+        int at = position;
+        String operator = next();
+        Function<RuleContext, BigDecimal> right = parseExpression();
+        return switch (operator) {
+            case "<" -> context -> left.apply(context).compareTo(right.apply(context)) < 0;
+            case "<=" -> context -> left.apply(context).compareTo(right.apply(context)) <= 0;
+            case ">" -> context -> left.apply(context).compareTo(right.apply(context)) > 0;
+            case ">=" -> context -> left.apply(context).compareTo(right.apply(context)) >= 0;
+            case "==" -> context -> left.apply(context).compareTo(right.apply(context)) == 0;
+            case "!=" -> context -> left.apply(context).compareTo(right.apply(context)) != 0;
+            default -> throw error(at, "expected a comparison operator");
+        };
+    }
+
+    private Function<RuleContext, BigDecimal> parseExpression() {
+        Function<RuleContext, BigDecimal> left = parseTerm();
+        while (true) {
+            if (accept("+")) {
+                Function<RuleContext, BigDecimal> l = left;
+                Function<RuleContext, BigDecimal> r = parseTerm();
+                left = context -> l.apply(context).add(r.apply(context));
+            } else if (accept("-")) {
+                Function<RuleContext, BigDecimal> l = left;
+                Function<RuleContext, BigDecimal> r = parseTerm();
+                left = context -> l.apply(context).subtract(r.apply(context));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Function<RuleContext, BigDecimal> parseTerm() {
+        Function<RuleContext, BigDecimal> left = parseFactor();
+        while (accept("*")) {
+            Function<RuleContext, BigDecimal> l = left;
+            Function<RuleContext, BigDecimal> r = parseFactor();
+            left = context -> l.apply(context).multiply(r.apply(context));
+        }
+        return left;
+    }
+
+    private Function<RuleContext, BigDecimal> parseFactor() {
+        int at = position;
+        String token = next();
+        if (token.equals("-")) {
+            Function<RuleContext, BigDecimal> operand = parseFactor();
+            return context -> operand.apply(context).negate();
+        }
+        if (token.equals("(")) {
+            Function<RuleContext, BigDecimal> inner = parseExpression();
+            expect(")");
+            return inner;
+        }
+        if (token.equals("min") || token.equals("max")) {
+            expect("(");
+            Function<RuleContext, BigDecimal> a = parseExpression();
+            expect(",");
+            Function<RuleContext, BigDecimal> b = parseExpression();
+            expect(")");
+            return token.equals("min")
+                    ? context -> a.apply(context).min(b.apply(context))
+                    : context -> a.apply(context).max(b.apply(context));
+        }
+        if (Character.isDigit(token.charAt(0))) {
+            BigDecimal constant;
+            try {
+                constant = new BigDecimal(token);
+            } catch (NumberFormatException e) {
+                throw error(at, "malformed number '" + token + "'");
+            }
+            return context -> constant;
+        }
+        if (!Character.isLetter(token.charAt(0)) && token.charAt(0) != '_') {
+            throw error(at, "expected a number or variable but found '" + token + "'");
+        }
+        Function<RuleContext, BigDecimal> variable = VARIABLES.get(token);
+        if (variable == null) {
+            throw error(at, "unknown variable '" + token + "'");
+        }
+        return variable;
+    }
+
+    /**
+     * Decides what the parenthesis at {@code open} starts without parsing
+     * it: an arithmetic operand if the group is followed by a comparison or
+     * arithmetic operator, e.g. "(extra_km - 20) * 2 > 0", otherwise a
+     * grouped condition. An unbalanced group is left to the condition parser
+     * to report.
+     */
+    private boolean isArithmeticOperand(int open) {
+        int depth = 0;
+        for (int i = open; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("(")) {
+                depth++;
+            } else if (token.equals(")") && --depth == 0) {
+                String following = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+                return isComparison(following) || "+".equals(following)
+                        || "-".equals(following) || "*".equals(following);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isComparison(String token) {
+        return token != null && (token.equals("<") || token.equals("<=") || token.equals(">")
+                || token.equals(">=") || token.equals("==") || token.equals("!="));
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private String next() {
+        if (position >= tokens.size()) {
+            throw error(position, "unexpected end of rule");
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error(position, "expected '" + token + "'");
+        }
+    }
+
+    private IllegalArgumentException error(int tokenIndex, String message) {
+        int column = tokenIndex < columns.size() ? columns.get(tokenIndex) : line.length();
+        return new IllegalArgumentException(String.format(
+                "Incentive rules line %d, column %d: %s", lineNumber, column + 1, message));
+    }
+
+    private void tokenize() {
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (Character.isDigit(c) || (c == '.' && i + 1 < line.length() && Character.isDigit(line.charAt(i + 1)))) {
+                while (i < line.length() && (Character.isDigit(line.charAt(i)) || line.charAt(i) == '.')) {
+                    i++;
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < line.length() && (Character.isLetterOrDigit(line.charAt(i)) || line.charAt(i) == '_')) {
+                    i++;
+                }
+            } else if ((c == '<' || c == '>' || c == '=' || c == '!')
+                    && i + 1 < line.length() && line.charAt(i + 1) == '=') {
+                i += 2;
+            } else if ("+-*(),<>=".indexOf(c) >= 0) {
+                i++;
+            } else {
+                columns.add(start);
+                throw error(columns.size() - 1, "unexpected character '" + c + "'");
+            }
+            String token = line.substring(start, i);
+            if (token.charAt(0) == '.') {
+                token = "0" + token;
+            }
+            tokens.add(token.toLowerCase());
+            columns.add(start);
+        }
+    }
+}
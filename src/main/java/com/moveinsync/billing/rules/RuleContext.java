@@ -0,0 +1,41 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.model.BillableTrip;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+
+/**
+ * Per-trip values visible to incentive rules, computed once per trip.
+ */
+final class RuleContext {
+
+    final BigDecimal distanceKm;
+    final BigDecimal durationHours;
+    final BigDecimal extraKm;
+    final BigDecimal extraHours;
+    final BigDecimal hour;
+    final BigDecimal dayOfWeek;
+    final boolean weekend;
+    final BigDecimal kmRate;
+    final BigDecimal hourRate;
+    final BigDecimal standardKm;
+    final BigDecimal standardHours;
+
+    RuleContext(BillableTrip trip, BillingConfiguration config) {
+        this.distanceKm = trip.getDistanceKm();
+        this.durationHours = trip.getDurationHours();
+        this.standardKm = config.getStandardKilometersPerTrip();
+        this.standardHours = config.getStandardHoursPerTrip();
+        this.extraKm = distanceKm.subtract(standardKm);
+        this.extraHours = durationHours.subtract(standardHours);
+        this.kmRate = config.getExtraKilometerRate();
+        this.hourRate = config.getExtraHourRate();
+
+        DayOfWeek day = trip.getTripDate().getDayOfWeek();
+        this.hour = BigDecimal.valueOf(trip.getTripDate().getHour());
+        this.dayOfWeek = BigDecimal.valueOf(day.getValue());
+        this.weekend = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,13 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.model.BillableTrip;
+import com.moveinsync.billing.strategy.TripCharge;
+
+/**
+ * Incentives for the trips of one calculate() call, addressed by position.
+ */
+@FunctionalInterface
+public interface TripIncentives {
+
+    TripCharge charge(int index, BillableTrip trip);
+}
@@ -1,20 +1,40 @@
 package com.moveinsync.billing.service;
 
+import com.moveinsync.billing.analytics.RouteAnalyticsService;
+import com.moveinsync.billing.concurrency.AdaptiveConcurrencyLimiter;
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.concurrency.DbBoundedExecutor;
+import com.moveinsync.billing.dto.KeysetPageDTO;
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.dto.TripOverlapDTO;
+import com.moveinsync.billing.dto.TripStamp;
+import com.moveinsync.billing.dto.VendorTripStamp;
 import com.moveinsync.billing.exception.ResourceNotFoundException;
 import com.moveinsync.billing.model.entity.*;
 import com.moveinsync.billing.repository.*;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import com.moveinsync.billing.strategy.BillingResult;
 import com.moveinsync.billing.strategy.BillingStrategy;
 import com.moveinsync.billing.strategy.BillingStrategyFactory;
+import com.moveinsync.billing.strategy.TripCharge;
+import com.moveinsync.billing.validation.TripOverlapValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
 
 /**
  * Core billing service implementing business logic.
@@ -30,28 +50,85 @@ public class BillingService {
     private final BillingConfigurationRepository configRepository;
     private final BillingRecordRepository billingRecordRepository;
     private final BillingStrategyFactory strategyFactory;
+    private final DbBoundedExecutor billingExecutor;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final TripOverlapValidator overlapValidator;
+    private final RouteAnalyticsService routeAnalytics;
+    private final BillingLineItemWriter lineItemWriter;
+    private final BillingLineItemRepository lineItemRepository;
+    private final ReportService reportService;
+    private final VendorService vendorService;
+    private final IncentiveRuleEngine incentiveRuleEngine;
+
+    // WARN logs overlapping trips; REJECT refuses to bill the vendor-month
+    @Value("${billing.validation.overlap-policy:WARN}")
+    private String overlapPolicy;
+
+    // Snapshot/compute/write rounds before giving up on a vendor whose trips keep changing
+    @Value("${billing.close.snapshot-attempts:3}")
+    private int snapshotAttempts;
 
     /**
-     * Process billing for a specific vendor and month.
+     * Process billing for a specific vendor and month in three phases, so a
+     * connection is held only while I/O happens:
+     * a read-only snapshot of the vendor's trips, a pure in-memory pricing
+     * pass, and a short write transaction that persists the record and its
+     * line items. The write re-checks the trips' {@link TripStamp} and
+     * re-runs from the snapshot if trips changed in between. Both
+     * transactions use the batch connection pool.
      * Time Complexity: O(n) where n is number of trips
      * Space Complexity: O(n) for storing trip list
      */
-    @Transactional
     public BillingRecord processBillingForVendor(Long vendorId, int month, int year) {
         log.info("Processing billing for vendor {} for {}/{}", vendorId, month, year);
 
-        // Check if billing already exists for this period
-        Optional<BillingRecord> existingRecord = billingRecordRepository
-                .findByVendorIdAndBillingMonthAndBillingYear(vendorId, month, year);
+        for (int attempt = 1; ; attempt++) {
+            // Phase 1: consistent read, connection released on return
+            BillingSnapshot snapshot = BatchRoutingDataSource.batch(() -> snapshotTransaction().execute(
+                    status -> readSnapshot(vendorId, month, year)));
+            if (snapshot == null) {
+                return null;
+            }
 
-        if (existingRecord.isPresent()) {
-            log.warn("Billing record already exists for vendor {} in {}/{}",
-                    vendorId, month, year);
-            throw new IllegalStateException(
-                    String.format("Billing already processed for vendor %d in %d/%d. " +
-                            "Delete existing record to reprocess.", vendorId, month, year)
-            );
+            BillingRecord saved = closeSnapshot(snapshot, month, year);
+            if (saved != null) {
+                return saved;
+            }
+            if (attempt >= snapshotAttempts) {
+                throw new IllegalStateException(String.format(
+                        "Trips of vendor %d in %d/%d kept changing during billing; retry later",
+                        vendorId, month, year));
+            }
+            log.info("Trips of vendor {} changed during billing for {}/{}; re-reading (attempt {})",
+                    vendorId, month, year, attempt + 1);
+        }
+    }
+
+    /**
+     * Prices a snapshot and writes it, or returns null without writing when
+     * the vendor's trips changed since the snapshot was read.
+     */
+    private BillingRecord closeSnapshot(BillingSnapshot snapshot, int month, int year) {
+        // Phase 2: pricing holds no connection
+        BillingStrategy strategy = strategyFactory.getStrategy(snapshot.getConfig().getBillingModelType());
+        BillingResult result = strategy.calculate(snapshot.getTrips(), snapshot.getConfig(), true);
+
+        // Phase 3: short write guarded by the snapshot's stamp; its latency drives the fan-out limit
+        long writeStart = System.nanoTime();
+        BillingRecord saved = BatchRoutingDataSource.batch(
+                () -> transactionTemplate.execute(status -> persist(snapshot, result, month, year)));
+        concurrencyLimiter.recordLatency(System.nanoTime() - writeStart, snapshot.getTrips().size());
+        if (saved != null) {
+            Long vendorId = snapshot.getVendor().getId();
+            recordRouteCosts(vendorId, snapshot.getTrips(), result.getLineItems());
+            reportService.evictBilledPeriod(vendorId, vendorService.getClientId(vendorId), month, year);
         }
+        return saved;
+    }
+
+    private BillingSnapshot readSnapshot(Long vendorId, int month, int year) {
+        ensureNotBilled(vendorId, month, year);
 
         // Fetch vendor with billing configuration
         Vendor vendor = vendorRepository.findByIdWithBillingConfig(vendorId)
@@ -67,7 +144,7 @@ public class BillingService {
         LocalDateTime startDate = yearMonth.atDay(1).atStartOfDay();
         LocalDateTime endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
 
-        List<Trip> trips = tripRepository.findByVendorIdAndTripDateBetween(
+        List<TripBillingRow> trips = tripRepository.findBillingRowsByVendorIdAndDateRange(
                 vendorId, startDate, endDate
         );
 
@@ -76,64 +153,256 @@ public class BillingService {
             return null;
         }
 
-        // Get appropriate billing strategy - O(1) map lookup
-        BillingStrategy strategy = strategyFactory.getStrategy(config.getBillingModelType());
-
-        // Calculate billing - O(n) time complexity
-        BigDecimal totalAmount = strategy.calculateBilling(trips, config);
-
-        // Calculate aggregates - O(n) traversal
-        BigDecimal totalDistance = trips.stream()
-                .map(Trip::getDistanceKm)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Double-billing check - O(n log n) interval tree per employee
+        List<TripOverlapDTO> overlaps = overlapValidator.findVendorOverlaps(vendorId, month, year);
+        if (!overlaps.isEmpty()) {
+            log.warn("Vendor {} has {} overlapping trips in {}/{}", vendorId, overlaps.size(), month, year);
+            if ("REJECT".equalsIgnoreCase(overlapPolicy)) {
+                throw new IllegalStateException(String.format(
+                        "Vendor %d has %d overlapping trips in %d/%d; resolve them before billing",
+                        vendorId, overlaps.size(), month, year));
+            }
+        }
 
-        BigDecimal totalDuration = trips.stream()
-                .map(Trip::getDurationHours)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        TripStamp stamp = tripRepository.findStampByVendorIdAndDateRange(vendorId, startDate, endDate);
+        return new BillingSnapshot(vendor, config, trips, stamp, startDate, endDate);
+    }
 
-        BigDecimal totalIncentives = trips.stream()
-                .map(trip -> trip.getVendorIncentive().add(trip.getEmployeeIncentive()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Writes the record and line items, or returns null without writing
+     * when the vendor's trips no longer match the snapshot.
+     */
+    private BillingRecord persist(BillingSnapshot snapshot, BillingResult result, int month, int year) {
+        Long vendorId = snapshot.getVendor().getId();
+        // Concurrent closes of the same vendor queue here instead of double billing
+        vendorRepository.findForUpdate(vendorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Vendor not found: " + vendorId));
+        ensureNotBilled(vendorId, month, year);
 
-        // Mark trips as processed
-        trips.forEach(trip -> trip.setProcessed(true));
-        tripRepository.saveAll(trips);
+        TripStamp current = tripRepository.findStampByVendorIdAndDateRange(
+                vendorId, snapshot.getStartDate(), snapshot.getEndDate());
+        if (!current.equals(snapshot.getStamp())) {
+            return null;
+        }
 
         // Create billing record
         BillingRecord record = BillingRecord.builder()
-                .vendor(vendor)
+                .vendor(snapshot.getVendor())
                 .billingMonth(month)
                 .billingYear(year)
-                .totalTrips(trips.size())
-                .totalDistance(totalDistance)
-                .totalDuration(totalDuration)
-                .baseBilling(totalAmount.subtract(totalIncentives))
-                .totalIncentives(totalIncentives)
-                .totalAmount(totalAmount)
-                .trips(trips)
+                .totalTrips(result.getTotalTrips())
+                .totalDistance(result.getTotalDistance())
+                .totalDuration(result.getTotalDuration())
+                .baseBilling(result.getBaseBilling())
+                .totalIncentives(result.getTotalIncentives())
+                .totalAmount(result.getTotalAmount())
                 .build();
 
-        return billingRecordRepository.save(record);
+        BillingRecord saved = billingRecordRepository.save(record);
+
+        // Per-trip breakdown goes to the append-only line-item table via COPY;
+        // the trips table is only read, never updated, at month close
+        List<TripBillingRow> trips = snapshot.getTrips();
+        List<TripCharge> lineItems = result.getLineItems();
+        List<BillingLineItem> items = new ArrayList<>(trips.size());
+        for (int i = 0; i < trips.size(); i++) {
+            items.add(lineItems.get(i).toLineItem(saved.getId(), trips.get(i)));
+        }
+        lineItemWriter.write(items);
+        return saved;
+    }
+
+    private void ensureNotBilled(Long vendorId, int month, int year) {
+        // Check if billing already exists for this period
+        Optional<BillingRecord> existingRecord = billingRecordRepository
+                .findByVendorIdAndBillingMonthAndBillingYear(vendorId, month, year);
+
+        if (existingRecord.isPresent()) {
+            log.warn("Billing record already exists for vendor {} in {}/{}",
+                    vendorId, month, year);
+            throw new IllegalStateException(
+                    String.format("Billing already processed for vendor %d in %d/%d. " +
+                            "Delete existing record to reprocess.", vendorId, month, year)
+            );
+        }
+    }
+
+    // Feed billed cost per route into the streaming route summaries
+    private void recordRouteCosts(Long vendorId, List<TripBillingRow> trips, List<TripCharge> lineItems) {
+        for (int i = 0; i < trips.size(); i++) {
+            TripBillingRow trip = trips.get(i);
+            routeAnalytics.recordCost(vendorId, trip.getTripDate(), trip.getSource(), trip.getDestination(),
+                    chargedAmount(lineItems.get(i)));
+        }
+    }
+
+    // Repeatable read so the trip rows and their stamp come from one snapshot
+    private TransactionTemplate snapshotTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return template;
     }
 
     /**
-     * Process billing for all vendors in a given month.
-     * Time Complexity: O(v * n) where v is vendors, n is avg trips per vendor
+     * Keyset page of a billing record's per-trip line items, ordered by trip id.
+     * Time Complexity: O(log n + size) primary-key range scan
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<BillingLineItem> getLineItemPage(Long recordId, Long afterTripId, int size) {
+        BillingRecord record = billingRecordRepository.findById(recordId)
+                .orElseThrow(() -> new ResourceNotFoundException("Billing record not found: " + recordId));
+        int pageSize = PageLimits.clamp(size);
+        List<BillingLineItem> rows = lineItemRepository.findPage(
+                recordId, PageLimits.cursor(afterTripId), PageRequest.of(0, pageSize + 1));
+        return KeysetPageDTO.of(rows, pageSize, BillingLineItem::getTripId, record.getTotalTrips());
+    }
+
+    /**
+     * Replaces a vendor's incentive rules after compiling them, so a month
+     * close never meets rules that don't parse. Blank rules restore
+     * {@link IncentiveRuleEngine#DEFAULT_RULES}.
+     * @throws IllegalArgumentException with line and column on a syntax error
      */
     @Transactional
+    public void updateIncentiveRules(Long vendorId, String rules) {
+        BillingConfiguration config = configRepository.findByVendorId(vendorId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Billing configuration not found for vendor: " + vendorId));
+        String normalized = rules == null || rules.isBlank() ? null : rules;
+        if (normalized != null) {
+            incentiveRuleEngine.compile(normalized);
+        }
+        config.setIncentiveRules(normalized);
+        configRepository.save(config);
+        log.info("Updated incentive rules of vendor {}", vendorId);
+    }
+
+    // Per-trip charge attributable to the route; package fees are not per trip
+    private static BigDecimal chargedAmount(TripCharge charge) {
+        BigDecimal amount = charge.getBaseCost() != null ? charge.getBaseCost() : BigDecimal.ZERO;
+        return amount.add(charge.getVendorIncentive()).add(charge.getEmployeeIncentive());
+    }
+
+    /**
+     * Process billing for all vendors in a given month with a fixed number
+     * of reads: all configurations, the vendors already billed, the month's
+     * overlaps and trip stamps, and one cursor over the month's trips ordered by
+     * (vendor, tripDate, id), all on the batch connection pool. Each
+     * vendor's partition is handed to the billing executor as soon as the
+     * cursor moves past it, so pricing and writes overlap the scan. The scan
+     * waits while two partitions per possible concurrent job are queued, so
+     * at most that many vendors' trips are in memory. Writes stay per vendor: a failure rolls back
+     * only that vendor, and a vendor whose trips changed after the scan is
+     * re-billed through {@link #processBillingForVendor}. How many vendors
+     * are in flight at once follows write latency and Hikari connection
+     * waiters ({@link AdaptiveConcurrencyLimiter}), capped by
+     * billing.execution.task-permits; set it to 1 to bill vendors one at a time.
+     * Time Complexity: O(n) scan plus O(v) short write transactions
+     */
     public void processBillingForAllVendors(int month, int year) {
-        log.info("Processing billing for all vendors for {}/{}", month, year);
+        log.info("Processing billing for all vendors for {}/{}, up to {} at once",
+                month, year, concurrencyLimiter.getMaxLimit());
 
-        List<Vendor> vendors = vendorRepository.findAll();
+        YearMonth yearMonth = YearMonth.of(year, month);
+        LocalDateTime startDate = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
+        List<CompletableFuture<BillingRecord>> jobs = new ArrayList<>();
+        // One partition running and one ready per job the limiter can ever allow
+        Semaphore backlog = new Semaphore(2 * concurrencyLimiter.getMaxLimit());
+
+        BatchRoutingDataSource.batch(() -> snapshotTransaction().executeWithoutResult(status -> {
+            Map<Long, BillingConfiguration> configs = new HashMap<>();
+            for (BillingConfiguration config : configRepository.findAllWithVendor()) {
+                configs.put(config.getVendor().getId(), config);
+            }
+            Set<Long> billed = billingRecordRepository.findBilledVendorIds(month, year);
+            Map<Long, Integer> overlaps = overlapCountsByVendor(month, year);
+            Map<Long, TripStamp> stamps = new HashMap<>();
+            for (VendorTripStamp stamp : tripRepository.findStampsByDateRange(startDate, endDate)) {
+                stamps.put(stamp.getVendorId(), stamp.toStamp());
+            }
+
+            try (Stream<TripBillingRow> rows = tripRepository.streamBillingRowsByDateRange(startDate, endDate)) {
+                VendorPartitions.forEach(rows, (vendorId, trips) -> submitPartition(jobs, backlog, vendorId, trips,
+                        configs, stamps, billed, overlaps, month, year, startDate, endDate));
+            }
+        }));
+
+        CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new)).join();
+        log.info("Billed {} vendors for {}/{}", jobs.size(), month, year);
+    }
+
+    private void submitPartition(List<CompletableFuture<BillingRecord>> jobs, Semaphore backlog, Long vendorId,
+                                 List<TripBillingRow> trips, Map<Long, BillingConfiguration> configs,
+                                 Map<Long, TripStamp> stamps,
+                                 Set<Long> billed, Map<Long, Integer> overlaps,
+                                 int month, int year, LocalDateTime startDate, LocalDateTime endDate) {
+        if (billed.contains(vendorId)) {
+            log.warn("Billing record already exists for vendor {} in {}/{}", vendorId, month, year);
+            return;
+        }
+        BillingConfiguration config = configs.get(vendorId);
+        if (config == null) {
+            log.error("Failed to process billing for vendor {}: billing configuration not found", vendorId);
+            return;
+        }
+        int overlapCount = overlaps.getOrDefault(vendorId, 0);
+        if (overlapCount > 0) {
+            log.warn("Vendor {} has {} overlapping trips in {}/{}", vendorId, overlapCount, month, year);
+            if ("REJECT".equalsIgnoreCase(overlapPolicy)) {
+                log.error("Failed to process billing for vendor {}: {} overlapping trips", vendorId, overlapCount);
+                return;
+            }
+        }
 
-        for (Vendor vendor : vendors) {
-            try {
-                processBillingForVendor(vendor.getId(), month, year);
-            } catch (Exception e) {
-                log.error("Failed to process billing for vendor {}: {}",
-                        vendor.getId(), e.getMessage());
-                // Continue processing other vendors (fault tolerance)
+        BillingSnapshot snapshot = new BillingSnapshot(config.getVendor(), config, trips,
+                stamps.get(vendorId), startDate, endDate);
+        try {
+            backlog.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while billing vendors for " + month + "/" + year, e);
+        }
+        jobs.add(billingExecutor.submit(() -> concurrencyLimiter.call(() -> {
+                    BillingRecord saved = closeSnapshot(snapshot, month, year);
+                    return saved != null ? saved : processBillingForVendor(vendorId, month, year);
+                }))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    log.error("Failed to process billing for vendor {}: {}",
+                            vendorId, cause.getMessage(), cause);
+                    // Continue processing other vendors (fault tolerance)
+                    return null;
+                })
+                .whenComplete((ignored, e) -> backlog.release()));
+    }
+
+    // Overlapping pairs per vendor; a pair between two vendors counts for both
+    private Map<Long, Integer> overlapCountsByVendor(int month, int year) {
+        LocalDateTime monthStart = YearMonth.of(year, month).atDay(1).atStartOfDay();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (TripOverlapDTO overlap : overlapValidator.generateMonthlyReport(month, year).getConflicts()) {
+            // A trip from the previous month counts against that month's billing, not this one
+            boolean firstInMonth = !overlap.getFirstStart().isBefore(monthStart);
+            boolean secondInMonth = !overlap.getSecondStart().isBefore(monthStart);
+            if (firstInMonth) {
+                counts.merge(overlap.getFirstVendorId(), 1, Integer::sum);
+            }
+            if (secondInMonth && !(firstInMonth && overlap.getSecondVendorId().equals(overlap.getFirstVendorId()))) {
+                counts.merge(overlap.getSecondVendorId(), 1, Integer::sum);
             }
         }
+        return counts;
+    }
+
+    @lombok.Value
+    private static class BillingSnapshot {
+        Vendor vendor;
+        BillingConfiguration config;
+        List<TripBillingRow> trips;
+        TripStamp stamp;
+        LocalDateTime startDate;
+        LocalDateTime endDate;
     }
 }
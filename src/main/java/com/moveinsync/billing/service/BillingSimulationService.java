@@ -0,0 +1,201 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.dto.*;
+import com.moveinsync.billing.exception.ResourceNotFoundException;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.repository.BillingConfigurationRepository;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import com.moveinsync.billing.strategy.BillingStrategy;
+import com.moveinsync.billing.strategy.BillingStrategyFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * What-if billing: replays a vendor's historical trips through candidate
+ * configurations without touching persisted trips, configs or records.
+ * Candidates are evaluated in parallel over shared, cached snapshots.
+ * Time Complexity: O(c * n) where c is candidates, n is trips in the window
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillingSimulationService {
+
+    private static final String CURRENT_LABEL = "current";
+
+    private final BillingConfigurationRepository configRepository;
+    private final TripSnapshotService snapshotService;
+    private final BillingStrategyFactory strategyFactory;
+    private final IncentiveRuleEngine incentiveRuleEngine;
+
+    public SimulationResultDTO simulate(SimulationRequestDTO request) {
+        Long vendorId = request.getVendorId();
+        BillingConfiguration current = configRepository.findByVendorId(vendorId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Billing configuration not found for vendor: " + vendorId));
+
+        List<YearMonth> window = resolveWindow(request);
+        List<List<TripSnapshot>> monthlyTrips = window.stream()
+                .map(ym -> snapshotService.getMonth(vendorId, ym.getMonthValue(), ym.getYear()))
+                .collect(Collectors.toList());
+
+        log.info("Simulating {} candidates for vendor {} over {} months",
+                request.getCandidates().size(), vendorId, window.size());
+
+        CandidateResultDTO baseline = evaluate(CURRENT_LABEL, current, monthlyTrips);
+
+        List<BillingCandidateDTO> candidates = request.getCandidates();
+        List<BillingConfiguration> configs = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            BillingConfiguration config = merge(current, candidates.get(i));
+            requireRates(labelOf(candidates.get(i), i), config);
+            requireValidRules(labelOf(candidates.get(i), i), config);
+            configs.add(config);
+        }
+
+        List<CandidateResultDTO> results = IntStream.range(0, candidates.size()).parallel()
+                .mapToObj(i -> evaluate(labelOf(candidates.get(i), i), configs.get(i), monthlyTrips))
+                .sorted(Comparator.comparing(CandidateResultDTO::getTotalAmount))
+                .collect(Collectors.toList());
+
+        baseline.setDifferenceFromCurrent(BigDecimal.ZERO);
+        results.forEach(result -> result.setDifferenceFromCurrent(
+                result.getTotalAmount().subtract(baseline.getTotalAmount())));
+
+        return SimulationResultDTO.builder()
+                .vendorId(vendorId)
+                .months(window.stream().map(YearMonth::toString).collect(Collectors.toList()))
+                .totalTrips(monthlyTrips.stream().mapToInt(List::size).sum())
+                .current(baseline)
+                .candidates(results)
+                .build();
+    }
+
+    private CandidateResultDTO evaluate(String label, BillingConfiguration config,
+                                        List<List<TripSnapshot>> monthlyTrips) {
+        BillingStrategy strategy = strategyFactory.getStrategy(config.getBillingModelType());
+        List<BigDecimal> monthlyAmounts = new ArrayList<>(monthlyTrips.size());
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (List<TripSnapshot> snapshots : monthlyTrips) {
+            // Months without trips produce no billing record in real processing
+            // Strategies are pure, so shared cached snapshots are safe to price concurrently
+            BigDecimal amount = snapshots.isEmpty()
+                    ? BigDecimal.ZERO
+                    : strategy.calculate(snapshots, config, false).getTotalAmount();
+            monthlyAmounts.add(amount);
+            total = total.add(amount);
+        }
+
+        return CandidateResultDTO.builder()
+                .label(label)
+                .billingModelType(config.getBillingModelType())
+                .monthlyAmounts(monthlyAmounts)
+                .totalAmount(total)
+                .build();
+    }
+
+    /**
+     * Rejects a merged candidate that lacks a value its model prices with.
+     * Incentives use the standard and extra rates under every model.
+     */
+    private void requireRates(String label, BillingConfiguration config) {
+        if (config.getBillingModelType() == null) {
+            throw new IllegalArgumentException("Candidate '" + label + "' has no billing model type");
+        }
+        Map<String, Object> required = new LinkedHashMap<>();
+        switch (config.getBillingModelType()) {
+            case PACKAGE -> {
+                required.put("fixedMonthlyCost", config.getFixedMonthlyCost());
+                required.put("includedTrips", config.getIncludedTrips());
+                required.put("includedKilometers", config.getIncludedKilometers());
+                required.put("costPerTrip", config.getCostPerTrip());
+            }
+            case TRIP -> {
+                required.put("costPerTrip", config.getCostPerTrip());
+                required.put("costPerKilometer", config.getCostPerKilometer());
+            }
+            case HYBRID -> {
+                required.put("fixedMonthlyCost", config.getFixedMonthlyCost());
+                required.put("includedTrips", config.getIncludedTrips());
+                required.put("costPerTrip", config.getCostPerTrip());
+                required.put("costPerKilometer", config.getCostPerKilometer());
+            }
+        }
+        required.put("standardKilometersPerTrip", config.getStandardKilometersPerTrip());
+        required.put("standardHoursPerTrip", config.getStandardHoursPerTrip());
+        required.put("extraKilometerRate", config.getExtraKilometerRate());
+        required.put("extraHourRate", config.getExtraHourRate());
+
+        List<String> missing = required.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Candidate '%s' is missing %s required by the %s model",
+                    label, String.join(", ", missing), config.getBillingModelType()));
+        }
+    }
+
+    private void requireValidRules(String label, BillingConfiguration config) {
+        String rules = config.getIncentiveRules();
+        if (rules == null || rules.isBlank()) {
+            return;
+        }
+        try {
+            incentiveRuleEngine.compile(rules);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Candidate '" + label + "': " + e.getMessage(), e);
+        }
+    }
+
+    private BillingConfiguration merge(BillingConfiguration current, BillingCandidateDTO candidate) {
+        return BillingConfiguration.builder()
+                .billingModelType(pick(candidate.getBillingModelType(), current.getBillingModelType()))
+                .fixedMonthlyCost(pick(candidate.getFixedMonthlyCost(), current.getFixedMonthlyCost()))
+                .includedTrips(pick(candidate.getIncludedTrips(), current.getIncludedTrips()))
+                .includedKilometers(pick(candidate.getIncludedKilometers(), current.getIncludedKilometers()))
+                .costPerTrip(pick(candidate.getCostPerTrip(), current.getCostPerTrip()))
+                .costPerKilometer(pick(candidate.getCostPerKilometer(), current.getCostPerKilometer()))
+                .extraKilometerRate(pick(candidate.getExtraKilometerRate(), current.getExtraKilometerRate()))
+                .extraHourRate(pick(candidate.getExtraHourRate(), current.getExtraHourRate()))
+                .standardKilometersPerTrip(pick(candidate.getStandardKilometersPerTrip(),
+                        current.getStandardKilometersPerTrip()))
+                .standardHoursPerTrip(pick(candidate.getStandardHoursPerTrip(),
+                        current.getStandardHoursPerTrip()))
+                .incentiveRules(pick(candidate.getIncentiveRules(), current.getIncentiveRules()))
+                .build();
+    }
+
+    private static <T> T pick(T override, T fallback) {
+        return override != null ? override : fallback;
+    }
+
+    private String labelOf(BillingCandidateDTO candidate, int index) {
+        return candidate.getLabel() != null ? candidate.getLabel() : "candidate-" + (index + 1);
+    }
+
+    private List<YearMonth> resolveWindow(SimulationRequestDTO request) {
+        YearMonth end = (request.getEndMonth() != null && request.getEndYear() != null)
+                ? YearMonth.of(request.getEndYear(), request.getEndMonth())
+                : YearMonth.now().minusMonths(1);
+
+        List<YearMonth> window = new ArrayList<>(request.getMonths());
+        for (int i = request.getMonths() - 1; i >= 0; i--) {
+            window.add(end.minusMonths(i));
+        }
+        return window;
+    }
+}
@@ -1,6 +1,7 @@
 package com.moveinsync.billing.service;
 
 import com.moveinsync.billing.dto.ClientDTO;
+import com.moveinsync.billing.dto.KeysetPageDTO;
 import com.moveinsync.billing.exception.ResourceNotFoundException;
 import com.moveinsync.billing.model.entity.Client;
 import com.moveinsync.billing.repository.ClientRepository;
@@ -8,6 +9,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,9 +23,13 @@ import java.util.stream.Collectors;
 public class ClientService {
 
     private final ClientRepository clientRepository;
+    private final EntityCountService countService;
 
     @Transactional
-    @CacheEvict(value = "clients", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "clients", allEntries = true),
+            @CacheEvict(value = "entityCounts", key = "'clients'")
+    })
     public ClientDTO createClient(ClientDTO dto) {
         log.info("Creating client: {}", dto.getClientCode());
 
@@ -54,6 +61,18 @@ public class ClientService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset-paginated client listing served straight from a DTO projection.
+     * Time Complexity: O(log c + size) index seek
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<ClientDTO> getClientPage(Long afterId, int size) {
+        int pageSize = PageLimits.clamp(size);
+        List<ClientDTO> rows = clientRepository.findSummariesAfter(
+                PageLimits.cursor(afterId), PageRequest.of(0, pageSize + 1));
+        return KeysetPageDTO.of(rows, pageSize, ClientDTO::getId, countService.countClients());
+    }
+
     @Transactional
     @CacheEvict(value = "clients", key = "#id")
     public ClientDTO updateClient(Long id, ClientDTO dto) {
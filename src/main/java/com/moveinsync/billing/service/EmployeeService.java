@@ -0,0 +1,31 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.dto.EmployeeSummaryDTO;
+import com.moveinsync.billing.dto.KeysetPageDTO;
+import com.moveinsync.billing.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeService {
+
+    private final EmployeeRepository employeeRepository;
+    private final EntityCountService countService;
+
+    /**
+     * Keyset-paginated employee listing.
+     * Time Complexity: O(log e + size) index seek
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<EmployeeSummaryDTO> getEmployeePage(Long afterId, int size) {
+        int pageSize = PageLimits.clamp(size);
+        List<EmployeeSummaryDTO> rows = employeeRepository.findSummariesAfter(
+                PageLimits.cursor(afterId), PageRequest.of(0, pageSize + 1));
+        return KeysetPageDTO.of(rows, pageSize, EmployeeSummaryDTO::getId, countService.countEmployees());
+    }
+}
@@ -0,0 +1,41 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.repository.ClientRepository;
+import com.moveinsync.billing.repository.EmployeeRepository;
+import com.moveinsync.billing.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Cached row counts for paginated listings.
+ * COUNT(*) is a full index scan in PostgreSQL, so it is computed once per
+ * cache window instead of on every page request.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntityCountService {
+
+    private final ClientRepository clientRepository;
+    private final VendorRepository vendorRepository;
+    private final EmployeeRepository employeeRepository;
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = "entityCounts", key = "'clients'")
+    public long countClients() {
+        return clientRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = "entityCounts", key = "'vendors'")
+    public long countVendors() {
+        return vendorRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = "entityCounts", key = "'employees'")
+    public long countEmployees() {
+        return employeeRepository.count();
+    }
+}
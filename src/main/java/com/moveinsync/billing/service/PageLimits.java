@@ -0,0 +1,24 @@
+package com.moveinsync.billing.service;
+
+/**
+ * Shared bounds for keyset-paginated listings.
+ */
+final class PageLimits {
+
+    static final int DEFAULT_SIZE = 50;
+    static final int MAX_SIZE = 500;
+
+    private PageLimits() {
+    }
+
+    static int clamp(int size) {
+        if (size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    static long cursor(Long afterId) {
+        return afterId == null ? 0L : afterId;
+    }
+}
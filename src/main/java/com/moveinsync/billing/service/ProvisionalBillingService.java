@@ -0,0 +1,180 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.concurrency.BatchRoutingDataSource;
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.model.entity.ProvisionalBilling;
+import com.moveinsync.billing.repository.BillingConfigurationRepository;
+import com.moveinsync.billing.repository.ProvisionalBillingRepository;
+import com.moveinsync.billing.repository.TripRepository;
+import com.moveinsync.billing.strategy.BillingResult;
+import com.moveinsync.billing.strategy.BillingStrategy;
+import com.moveinsync.billing.strategy.BillingStrategyFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Month-to-date provisional billing with a month-end projection.
+ *
+ * Once a day (off-peak by default) every vendor's trips of the current
+ * month so far are priced with its strategy, without creating a
+ * BillingRecord, and stored as {@link ProvisionalBilling} snapshots.
+ * The projection prices the month-to-date trips repeated up to the
+ * extrapolated month-end trip count, so package allowances and included
+ * trips are applied as they would be at month end. Only one node runs a
+ * given day: the run holds a Postgres advisory lock for its transaction
+ * and other nodes skip.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProvisionalBillingService {
+
+    // Application-wide advisory lock key of this job
+    private static final long ADVISORY_LOCK_KEY = 0x4D49535F50524F56L;
+
+    private final TripRepository tripRepository;
+    private final BillingConfigurationRepository configRepository;
+    private final ProvisionalBillingRepository provisionalRepository;
+    private final BillingStrategyFactory strategyFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${billing.provisional.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Snapshots the month to date up to and including yesterday.
+     */
+    @Scheduled(cron = "${billing.provisional.cron:0 30 2 * * *}")
+    public void runScheduled() {
+        if (enabled) {
+            run(LocalDate.now().minusDays(1), false);
+        }
+    }
+
+    /**
+     * Stores snapshots of {@code asOf} for every vendor with trips in that
+     * month up to that day. Existing snapshots of the day are replaced when
+     * {@code replace} is set and left alone otherwise, so nodes whose
+     * schedule fires after the winner has committed do not redo the work.
+     * Runs on the batch connection pool.
+     * Time Complexity: O(n) scan plus O(n) pricing per vendor projection
+     * @return vendors snapshotted, or null if another node is running
+     */
+    public Integer run(LocalDate asOf, boolean replace) {
+        YearMonth yearMonth = YearMonth.from(asOf);
+        int daysElapsed = asOf.getDayOfMonth();
+        int daysInMonth = yearMonth.lengthOfMonth();
+
+        Integer written = BatchRoutingDataSource.batch(() -> transactionTemplate.execute(status -> {
+            if (!provisionalRepository.tryAdvisoryLock(ADVISORY_LOCK_KEY)) {
+                return null;
+            }
+            if (!replace && provisionalRepository.existsByAsOfDate(asOf)) {
+                return 0;
+            }
+            Map<Long, BillingConfiguration> configs = new HashMap<>();
+            for (BillingConfiguration config : configRepository.findAllWithVendor()) {
+                configs.put(config.getVendor().getId(), config);
+            }
+
+            List<ProvisionalBilling> snapshots = new ArrayList<>();
+            try (Stream<TripBillingRow> rows = tripRepository.streamBillingRowsByDateRange(
+                    yearMonth.atDay(1).atStartOfDay(), asOf.atTime(23, 59, 59))) {
+                VendorPartitions.forEach(rows, (vendorId, trips) -> {
+                    BillingConfiguration config = configs.get(vendorId);
+                    if (config == null) {
+                        log.warn("Skipping provisional billing of vendor {}: no billing configuration", vendorId);
+                        return;
+                    }
+                    snapshots.add(price(vendorId, trips, config, asOf, daysElapsed, daysInMonth));
+                });
+            }
+
+            provisionalRepository.deleteByAsOfDate(asOf);
+            provisionalRepository.saveAll(snapshots);
+            return snapshots.size();
+        }));
+
+        if (written == null) {
+            log.info("Provisional billing for {} is running on another node; skipped", asOf);
+        } else {
+            log.info("Stored provisional billing of {} vendors as of {}", written, asOf);
+        }
+        return written;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProvisionalBilling> getSnapshots(LocalDate asOf) {
+        return provisionalRepository.findByAsOfDateOrderByVendorId(asOf);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProvisionalBilling> getVendorHistory(Long vendorId, int month, int year) {
+        return provisionalRepository.findByVendorIdAndBillingMonthAndBillingYearOrderByAsOfDate(
+                vendorId, month, year);
+    }
+
+    private ProvisionalBilling price(Long vendorId, List<TripBillingRow> trips, BillingConfiguration config,
+                                     LocalDate asOf, int daysElapsed, int daysInMonth) {
+        BillingStrategy strategy = strategyFactory.getStrategy(config.getBillingModelType());
+        BillingResult toDate = strategy.calculate(trips, config, false);
+
+        // Linear extrapolation of the trip count, rounded half up
+        int projectedTrips = (int) ((trips.size() * (long) daysInMonth * 2 + daysElapsed) / (2L * daysElapsed));
+        BillingResult projected = projectedTrips == trips.size()
+                ? toDate
+                : strategy.calculate(new RepeatedTrips(trips, projectedTrips), config, false);
+
+        return ProvisionalBilling.builder()
+                .vendorId(vendorId)
+                .asOfDate(asOf)
+                .billingMonth(asOf.getMonthValue())
+                .billingYear(asOf.getYear())
+                .daysElapsed(daysElapsed)
+                .daysInMonth(daysInMonth)
+                .totalTrips(toDate.getTotalTrips())
+                .totalDistance(toDate.getTotalDistance())
+                .baseBilling(toDate.getBaseBilling())
+                .totalIncentives(toDate.getTotalIncentives())
+                .totalAmount(toDate.getTotalAmount())
+                .projectedTrips(projectedTrips)
+                .projectedAmount(projected.getTotalAmount())
+                .build();
+    }
+
+    // The month-to-date trips cycled up to a projected size, without copying
+    private static final class RepeatedTrips extends AbstractList<TripBillingRow> {
+        private final List<TripBillingRow> trips;
+        private final int size;
+
+        RepeatedTrips(List<TripBillingRow> trips, int size) {
+            this.trips = trips;
+            this.size = size;
+        }
+
+        @Override
+        public TripBillingRow get(int index) {
+            return trips.get(index % trips.size());
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
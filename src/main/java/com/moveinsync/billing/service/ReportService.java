@@ -2,14 +2,18 @@ package com.moveinsync.billing.service;
 
 import com.moveinsync.billing.dto.ClientReportDTO;
 import com.moveinsync.billing.dto.EmployeeIncentiveDTO;
+import com.moveinsync.billing.dto.LineItemTotalsDTO;
 import com.moveinsync.billing.dto.VendorReportDTO;
 import com.moveinsync.billing.model.entity.BillingRecord;
 import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.repository.BillingLineItemRepository;
 import com.moveinsync.billing.repository.BillingRecordRepository;
 import com.moveinsync.billing.repository.TripRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +38,22 @@ public class ReportService {
 
     private final BillingRecordRepository billingRecordRepository;
     private final TripRepository tripRepository;
+    private final BillingLineItemRepository lineItemRepository;
+
+    /**
+     * Drops cached reports that a new billing record for the vendor's period
+     * makes stale, on this node and (via the coherent cache) on every other.
+     * Employee reports are keyed by employee, so the whole cache goes.
+     */
+    @Caching(evict = {
+            @CacheEvict(value = "vendorReports", key = "#vendorId + '-' + #month + '-' + #year"),
+            @CacheEvict(value = "clientReports", key = "#clientId + '-' + #month + '-' + #year",
+                    condition = "#clientId != null"),
+            @CacheEvict(value = "employeeReports", allEntries = true)
+    })
+    public void evictBilledPeriod(Long vendorId, Long clientId, int month, int year) {
+        log.debug("Evicting reports of vendor {} for {}/{}", vendorId, month, year);
+    }
 
     /**
      * Generate client-level monthly report.
@@ -54,6 +74,12 @@ public class ReportService {
                 clientId, startDate, endDate
         );
 
+        // Billed amounts per vendor from the line-item table
+        Map<Long, BigDecimal> billedByVendor = lineItemRepository
+                .sumByVendorForClient(clientId, startDate, endDate).stream()
+                .filter(totals -> totals.getTotalCost() != null)
+                .collect(Collectors.toMap(LineItemTotalsDTO::getGroupId, LineItemTotalsDTO::getTotalCost));
+
         // Group by vendor and calculate totals
         Map<Long, List<Trip>> tripsByVendor = clientTrips.stream()
                 .collect(Collectors.groupingBy(trip -> trip.getVendor().getId()));
@@ -66,11 +92,7 @@ public class ReportService {
                     Long vendorId = entry.getKey();
                     List<Trip> trips = entry.getValue();
 
-                    // Handle null totalCost values - filter nulls and sum
-                    BigDecimal vendorTotal = trips.stream()
-                            .map(Trip::getTotalCost)
-                            .filter(cost -> cost != null)  // Filter out null values
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    BigDecimal vendorTotal = billedByVendor.getOrDefault(vendorId, BigDecimal.ZERO);
 
                     return VendorReportDTO.builder()
                             .vendorId(vendorId)
@@ -153,16 +175,13 @@ public class ReportService {
                 employeeId, startDate, endDate
         );
 
-        // Handle null employee incentives - filter nulls before summing
-        BigDecimal totalIncentive = trips.stream()
-                .map(Trip::getEmployeeIncentive)
-                .filter(incentive -> incentive != null)  // Filter out null values
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Handle null extra hours - filter nulls before summing
-        BigDecimal totalExtraHours = trips.stream()
-                .map(trip -> trip.getExtraHours() != null ? trip.getExtraHours() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Incentives and extra hours of billed trips, summed in the database
+        LineItemTotalsDTO billed = lineItemRepository.sumForEmployee(employeeId, startDate, endDate)
+                .stream().findFirst().orElse(null);
+        BigDecimal totalIncentive = billed != null && billed.getEmployeeIncentive() != null
+                ? billed.getEmployeeIncentive() : BigDecimal.ZERO;
+        BigDecimal totalExtraHours = billed != null && billed.getExtraHours() != null
+                ? billed.getExtraHours() : BigDecimal.ZERO;
 
         String employeeName = trips.isEmpty() ? "" : trips.get(0).getEmployee().getName();
 
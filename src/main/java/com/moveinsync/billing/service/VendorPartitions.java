@@ -0,0 +1,38 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.dto.TripBillingRow;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Splits a trip stream ordered by vendor into one list per vendor, handing
+ * each over as soon as the stream moves past it.
+ */
+final class VendorPartitions {
+
+    private VendorPartitions() {
+    }
+
+    static void forEach(Stream<TripBillingRow> rows, BiConsumer<Long, List<TripBillingRow>> consumer) {
+        Long vendorId = null;
+        List<TripBillingRow> partition = new ArrayList<>();
+        for (Iterator<TripBillingRow> it = rows.iterator(); it.hasNext(); ) {
+            TripBillingRow row = it.next();
+            if (!row.getVendorId().equals(vendorId)) {
+                if (vendorId != null) {
+                    consumer.accept(vendorId, partition);
+                }
+                vendorId = row.getVendorId();
+                partition = new ArrayList<>();
+            }
+            partition.add(row);
+        }
+        if (vendorId != null) {
+            consumer.accept(vendorId, partition);
+        }
+    }
+}
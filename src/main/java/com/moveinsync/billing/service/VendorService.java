@@ -0,0 +1,42 @@
+package com.moveinsync.billing.service;
+
+import com.moveinsync.billing.dto.KeysetPageDTO;
+import com.moveinsync.billing.dto.VendorSummaryDTO;
+import com.moveinsync.billing.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class VendorService {
+
+    private final VendorRepository vendorRepository;
+    private final EntityCountService countService;
+
+    /**
+     * Keyset-paginated vendor listing.
+     * Time Complexity: O(log v + size) index seek, independent of trip volume
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<VendorSummaryDTO> getVendorPage(Long afterId, int size) {
+        int pageSize = PageLimits.clamp(size);
+        List<VendorSummaryDTO> rows = vendorRepository.findSummariesAfter(
+                PageLimits.cursor(afterId), PageRequest.of(0, pageSize + 1));
+        return KeysetPageDTO.of(rows, pageSize, VendorSummaryDTO::getId, countService.countVendors());
+    }
+
+    /**
+     * Owning client of a vendor. A vendor never moves between clients, so the
+     * answer is cached for the lifetime of the cache entry.
+     */
+    @Cacheable(value = "vendorClients", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Long getClientId(Long vendorId) {
+        return vendorRepository.findClientIdById(vendorId).orElse(null);
+    }
+}
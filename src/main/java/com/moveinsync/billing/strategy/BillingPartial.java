@@ -0,0 +1,64 @@
+package com.moveinsync.billing.strategy;
+
+import com.moveinsync.billing.model.BillableTrip;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of a strategy over a contiguous range of trips.
+ * BigDecimal addition is exact, so combining ranges in order yields the
+ * same values and scales as one sequential pass, however the trips were
+ * split. Not thread-safe; each range gets its own instance.
+ */
+@Getter
+final class BillingPartial {
+
+    private int trips;
+    private BigDecimal distance = BigDecimal.ZERO;
+    private BigDecimal duration = BigDecimal.ZERO;
+    private BigDecimal incentives = BigDecimal.ZERO;
+    // Per-trip charges owned by the strategy, without fixed monthly amounts
+    private BigDecimal cost = BigDecimal.ZERO;
+    private final boolean withLineItems;
+    private final List<TripCharge> lineItems;
+
+    BillingPartial(boolean withLineItems, int expectedTrips) {
+        this.withLineItems = withLineItems;
+        this.lineItems = withLineItems ? new ArrayList<>(expectedTrips) : new ArrayList<>(0);
+    }
+
+    void addTrip(BillableTrip trip, TripCharge incentives) {
+        trips++;
+        distance = distance.add(trip.getDistanceKm());
+        duration = duration.add(trip.getDurationHours());
+        this.incentives = this.incentives.add(
+                incentives.getVendorIncentive().add(incentives.getEmployeeIncentive())
+        );
+    }
+
+    void addCost(BigDecimal amount) {
+        cost = cost.add(amount);
+    }
+
+    void addLineItem(TripCharge charge) {
+        if (withLineItems) {
+            lineItems.add(charge);
+        }
+    }
+
+    /**
+     * Appends the range that directly follows this one.
+     */
+    BillingPartial combine(BillingPartial next) {
+        trips += next.trips;
+        distance = distance.add(next.distance);
+        duration = duration.add(next.duration);
+        incentives = incentives.add(next.incentives);
+        cost = cost.add(next.cost);
+        lineItems.addAll(next.lineItems);
+        return this;
+    }
+}
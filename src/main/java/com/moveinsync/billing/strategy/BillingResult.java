@@ -0,0 +1,39 @@
+package com.moveinsync.billing.strategy;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable outcome of a strategy run: every aggregate a BillingRecord needs,
+ * plus per-trip line items when they were requested.
+ */
+@Value
+@Builder
+public class BillingResult {
+    int totalTrips;
+    BigDecimal totalDistance;
+    BigDecimal totalDuration;
+    BigDecimal baseBilling;
+    BigDecimal totalIncentives;
+    BigDecimal totalAmount;
+    // In input order; empty unless line items were requested
+    List<TripCharge> lineItems;
+
+    static BillingResult of(int totalTrips, BigDecimal totalDistance, BigDecimal totalDuration,
+                            BigDecimal totalIncentives, BigDecimal totalAmount,
+                            List<TripCharge> lineItems) {
+        return BillingResult.builder()
+                .totalTrips(totalTrips)
+                .totalDistance(totalDistance)
+                .totalDuration(totalDuration)
+                .baseBilling(totalAmount.subtract(totalIncentives))
+                .totalIncentives(totalIncentives)
+                .totalAmount(totalAmount)
+                .lineItems(Collections.unmodifiableList(lineItems))
+                .build();
+    }
+}
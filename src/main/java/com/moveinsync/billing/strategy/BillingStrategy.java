@@ -1,26 +1,29 @@
 package com.moveinsync.billing.strategy;
 
+import com.moveinsync.billing.model.BillableTrip;
 import com.moveinsync.billing.model.entity.BillingConfiguration;
-import com.moveinsync.billing.model.entity.Trip;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
  * Strategy interface for different billing models.
  * Demonstrates Strategy Design Pattern (OOP principle).
+ * Implementations are pure: they never modify the trips or configuration
+ * they are given, so they are safe to run concurrently or speculatively.
  */
 public interface BillingStrategy {
 
     /**
-     * Calculates billing for a list of trips based on configuration.
+     * Calculates billing and all record aggregates in a single pass.
      * Time Complexity: O(n) where n is number of trips
-     * Space Complexity: O(1) as we calculate in-place
+     * Space Complexity: O(1), or O(n) when line items are requested
      */
-    BigDecimal calculateBilling(List<Trip> trips, BillingConfiguration config);
+    BillingResult calculate(List<? extends BillableTrip> trips, BillingConfiguration config,
+                            boolean withLineItems);
 
     /**
-     * Calculates incentives for extra kilometers and hours.
+     * Calculates the incentives of one trip from the configuration's
+     * incentive rules (extra kilometers and hours by default).
      */
-    void calculateIncentives(Trip trip, BillingConfiguration config);
+    TripCharge calculateIncentives(BillableTrip trip, BillingConfiguration config);
 }
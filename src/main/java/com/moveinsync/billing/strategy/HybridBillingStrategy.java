@@ -1,84 +1,98 @@
 package com.moveinsync.billing.strategy;
 
+import com.moveinsync.billing.model.BillableTrip;
 import com.moveinsync.billing.model.entity.BillingConfiguration;
-import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import com.moveinsync.billing.rules.TripIncentives;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Hybrid Model: Combination of package and trip-based billing.
+ * Trips past the package's includedTrips are charged in (tripDate, id)
+ * order, whatever order the caller passes them in.
  * Time Complexity: O(n) for processing trips
  * Space Complexity: O(1) constant space
  */
 @Component("HYBRID")
+@RequiredArgsConstructor
 public class HybridBillingStrategy implements BillingStrategy {
 
+    private static final Comparator<BillableTrip> CHRONOLOGICAL = Comparator
+            .comparing(BillableTrip::getTripDate)
+            .thenComparing(BillableTrip::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final IncentiveRuleEngine incentiveRules;
+    private final ParallelBillingEvaluator parallelEvaluator;
+
     @Override
-    public BigDecimal calculateBilling(List<Trip> trips, BillingConfiguration config) {
-        // Start with base package cost
-        BigDecimal totalCost = config.getFixedMonthlyCost();
+    public BillingResult calculate(List<? extends BillableTrip> trips, BillingConfiguration config,
+                                   boolean withLineItems) {
+        // Resolved once per call: bulk fixed-point or compiled rules
+        TripIncentives incentives = incentiveRules.incentivesFor(trips, config);
 
-        int tripCount = trips.size();
-        BigDecimal totalDistance = BigDecimal.ZERO;
+        // "Beyond the package" means beyond the first includedTrips trips by (tripDate, id)
+        int includedTrips = config.getIncludedTrips();
+        int[] positions = chronologicalPositions(trips);
 
-        // Calculate aggregate metrics - O(n) traversal
-        for (Trip trip : trips) {
-            totalDistance = totalDistance.add(trip.getDistanceKm());
-        }
+        // Totals, extra-trip charges beyond the package and incentives, chunked for large vendors
+        BillingPartial totals = parallelEvaluator.evaluate(trips.size(), withLineItems, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                BillableTrip trip = trips.get(i);
 
-        // Beyond package limits, charge per trip/distance
-        if (tripCount > config.getIncludedTrips()) {
-            int extraTrips = tripCount - config.getIncludedTrips();
-            for (int i = config.getIncludedTrips(); i < tripCount; i++) {
-                Trip trip = trips.get(i);
-                BigDecimal extraCost = trip.getDistanceKm()
-                        .multiply(config.getCostPerKilometer())
-                        .add(config.getCostPerTrip());
-                trip.setBaseCost(extraCost);
-                totalCost = totalCost.add(extraCost);
-            }
-        }
+                // Beyond package limits, charge per trip/distance
+                BigDecimal extraCost = null;
+                if ((positions == null ? i : positions[i]) >= includedTrips) {
+                    extraCost = trip.getDistanceKm()
+                            .multiply(config.getCostPerKilometer())
+                            .add(config.getCostPerTrip());
+                    partial.addCost(extraCost);
+                }
 
-        // Calculate incentives for all trips
-        BigDecimal totalIncentives = BigDecimal.ZERO;
-        for (Trip trip : trips) {
-            calculateIncentives(trip, config);
-            totalIncentives = totalIncentives.add(
-                    trip.getVendorIncentive().add(trip.getEmployeeIncentive())
-            );
-        }
+                TripCharge charge = incentives.charge(i, trip);
+                partial.addTrip(trip, charge);
+                partial.addLineItem(extraCost == null ? charge : charge.toBuilder().baseCost(extraCost).build());
+            }
+        });
 
-        return totalCost.add(totalIncentives);
+        // Start with base package cost
+        BigDecimal totalCost = config.getFixedMonthlyCost().add(totals.getCost());
+        return BillingResult.of(trips.size(), totals.getDistance(), totals.getDuration(),
+                totals.getIncentives(), totalCost.add(totals.getIncentives()), totals.getLineItems());
     }
 
-    @Override
-    public void calculateIncentives(Trip trip, BillingConfiguration config) {
-        BigDecimal vendorIncentive = BigDecimal.ZERO;
-        BigDecimal employeeIncentive = BigDecimal.ZERO;
-
-        // Extra kilometers
-        BigDecimal extraKm = trip.getDistanceKm()
-                .subtract(config.getStandardKilometersPerTrip());
-        if (extraKm.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraKilometers(extraKm);
-            vendorIncentive = vendorIncentive.add(
-                    extraKm.multiply(config.getExtraKilometerRate())
-            );
+    /**
+     * Position of each trip in (tripDate, id) order, or null when the list
+     * is already in that order (the usual case for repository snapshots).
+     * Time Complexity: O(n) when ordered, O(n log n) otherwise
+     */
+    private static int[] chronologicalPositions(List<? extends BillableTrip> trips) {
+        boolean ordered = true;
+        for (int i = 1; i < trips.size() && ordered; i++) {
+            ordered = CHRONOLOGICAL.compare(trips.get(i - 1), trips.get(i)) <= 0;
         }
-
-        // Extra hours
-        BigDecimal extraHours = trip.getDurationHours()
-                .subtract(config.getStandardHoursPerTrip());
-        if (extraHours.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraHours(extraHours);
-            BigDecimal extraHourIncentive = extraHours.multiply(config.getExtraHourRate());
-            vendorIncentive = vendorIncentive.add(extraHourIncentive);
-            employeeIncentive = extraHourIncentive.multiply(BigDecimal.valueOf(0.5));
+        if (ordered) {
+            return null;
         }
+        Integer[] order = new Integer[trips.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> CHRONOLOGICAL.compare(trips.get(a), trips.get(b)));
+        int[] positions = new int[order.length];
+        for (int position = 0; position < order.length; position++) {
+            positions[order[position]] = position;
+        }
+        return positions;
+    }
 
-        trip.setVendorIncentive(vendorIncentive);
-        trip.setEmployeeIncentive(employeeIncentive);
+    @Override
+    public TripCharge calculateIncentives(BillableTrip trip, BillingConfiguration config) {
+        return incentiveRules.programFor(config).evaluate(trip, config);
     }
 }
@@ -1,7 +1,10 @@
 package com.moveinsync.billing.strategy;
 
+import com.moveinsync.billing.model.BillableTrip;
 import com.moveinsync.billing.model.entity.BillingConfiguration;
-import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import com.moveinsync.billing.rules.TripIncentives;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -13,20 +16,32 @@ import java.util.List;
  * Space Complexity: O(1) constant space
  */
 @Component("PACKAGE")
+@RequiredArgsConstructor
 public class PackageBillingStrategy implements BillingStrategy {
 
+    private final IncentiveRuleEngine incentiveRules;
+    private final ParallelBillingEvaluator parallelEvaluator;
+
     @Override
-    public BigDecimal calculateBilling(List<Trip> trips, BillingConfiguration config) {
+    public BillingResult calculate(List<? extends BillableTrip> trips, BillingConfiguration config,
+                                   boolean withLineItems) {
         BigDecimal totalCost = config.getFixedMonthlyCost();
-        BigDecimal totalIncentives = BigDecimal.ZERO;
+        // Resolved once per call: bulk fixed-point or compiled rules
+        TripIncentives incentives = incentiveRules.incentivesFor(trips, config);
 
-        // Calculate total distance and trips
-        int tripCount = trips.size();
-        BigDecimal totalDistance = trips.stream()
-                .map(Trip::getDistanceKm)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Totals and per-trip incentives, chunked across cores for large vendors
+        BillingPartial totals = parallelEvaluator.evaluate(trips.size(), withLineItems, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                BillableTrip trip = trips.get(i);
+                TripCharge charge = incentives.charge(i, trip);
+                partial.addTrip(trip, charge);
+                partial.addLineItem(charge);
+            }
+        });
+        BigDecimal totalDistance = totals.getDistance();
 
         // Check if exceeded package limits
+        int tripCount = trips.size();
         if (tripCount > config.getIncludedTrips()) {
             int extraTrips = tripCount - config.getIncludedTrips();
             BigDecimal extraTripCost = config.getCostPerTrip()
@@ -40,46 +55,12 @@ public class PackageBillingStrategy implements BillingStrategy {
             totalCost = totalCost.add(extraKmCost);
         }
 
-        // Calculate incentives for each trip
-        for (Trip trip : trips) {
-            calculateIncentives(trip, config);
-            totalIncentives = totalIncentives.add(
-                    trip.getVendorIncentive().add(trip.getEmployeeIncentive())
-            );
-        }
-
-        return totalCost.add(totalIncentives);
+        return BillingResult.of(tripCount, totalDistance, totals.getDuration(),
+                totals.getIncentives(), totalCost.add(totals.getIncentives()), totals.getLineItems());
     }
 
     @Override
-    public void calculateIncentives(Trip trip, BillingConfiguration config) {
-        BigDecimal vendorIncentive = BigDecimal.ZERO;
-        BigDecimal employeeIncentive = BigDecimal.ZERO;
-
-        // Calculate extra kilometers
-        BigDecimal extraKm = trip.getDistanceKm()
-                .subtract(config.getStandardKilometersPerTrip());
-        if (extraKm.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraKilometers(extraKm);
-            vendorIncentive = vendorIncentive.add(
-                    extraKm.multiply(config.getExtraKilometerRate())
-            );
-        }
-
-        // Calculate extra hours
-        BigDecimal extraHours = trip.getDurationHours()
-                .subtract(config.getStandardHoursPerTrip());
-        if (extraHours.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraHours(extraHours);
-            vendorIncentive = vendorIncentive.add(
-                    extraHours.multiply(config.getExtraHourRate())
-            );
-            // Employee gets 50% of extra hour incentive
-            employeeIncentive = extraHours.multiply(config.getExtraHourRate())
-                    .multiply(BigDecimal.valueOf(0.5));
-        }
-
-        trip.setVendorIncentive(vendorIncentive);
-        trip.setEmployeeIncentive(employeeIncentive);
+    public TripCharge calculateIncentives(BillableTrip trip, BillingConfiguration config) {
+        return incentiveRules.programFor(config).evaluate(trip, config);
     }
 }
@@ -0,0 +1,80 @@
+package com.moveinsync.billing.strategy;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs a strategy's per-trip pricing over fixed-size chunks of the trip
+ * list on a dedicated fork/join pool and combines the chunk totals in
+ * list order. Small lists are priced inline on the calling thread.
+ *
+ * Chunk boundaries depend only on the list size, and {@link BillingPartial}
+ * combines exactly, so results equal a sequential pass bit for bit.
+ */
+@Component
+@Slf4j
+public class ParallelBillingEvaluator {
+
+    @FunctionalInterface
+    interface RangePricer {
+        // Prices trips [from, to) into the given partial; must not touch shared state
+        void price(int from, int to, BillingPartial into);
+    }
+
+    private final ForkJoinPool pool;
+    private final boolean enabled;
+    private final int minTrips;
+    private final int chunkTrips;
+
+    public ParallelBillingEvaluator(@Value("${billing.parallel.enabled:true}") boolean enabled,
+                                    @Value("${billing.parallel.min-trips:100000}") int minTrips,
+                                    @Value("${billing.parallel.chunk-trips:16384}") int chunkTrips,
+                                    @Value("${billing.parallel.parallelism:0}") int parallelism) {
+        this.enabled = enabled;
+        this.minTrips = minTrips;
+        this.chunkTrips = Math.max(1, chunkTrips);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        log.info("Billing strategies split lists of {}+ trips across {} threads", minTrips, threads);
+    }
+
+    /**
+     * Time Complexity: O(n / p) wall clock for n trips on p threads
+     */
+    BillingPartial evaluate(int size, boolean withLineItems, RangePricer pricer) {
+        if (!enabled || size < minTrips || size <= chunkTrips) {
+            BillingPartial partial = new BillingPartial(withLineItems, size);
+            pricer.price(0, size, partial);
+            return partial;
+        }
+
+        List<ForkJoinTask<BillingPartial>> chunks = new ArrayList<>(size / chunkTrips + 1);
+        for (int from = 0; from < size; from += chunkTrips) {
+            int start = from;
+            int end = Math.min(size, from + chunkTrips);
+            chunks.add(pool.submit(() -> {
+                BillingPartial partial = new BillingPartial(withLineItems, end - start);
+                pricer.price(start, end, partial);
+                return partial;
+            }));
+        }
+
+        BillingPartial total = new BillingPartial(withLineItems, size);
+        for (ForkJoinTask<BillingPartial> chunk : chunks) {
+            total.combine(chunk.join());
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
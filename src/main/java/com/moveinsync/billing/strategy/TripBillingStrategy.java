@@ -1,7 +1,10 @@
 package com.moveinsync.billing.strategy;
 
+import com.moveinsync.billing.model.BillableTrip;
 import com.moveinsync.billing.model.entity.BillingConfiguration;
-import com.moveinsync.billing.model.entity.Trip;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import com.moveinsync.billing.rules.TripIncentives;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -13,64 +16,54 @@ import java.util.List;
  * Space Complexity: O(1) constant space
  */
 @Component("TRIP")
+@RequiredArgsConstructor
 public class TripBillingStrategy implements BillingStrategy {
 
+    private final IncentiveRuleEngine incentiveRules;
+    private final ParallelBillingEvaluator parallelEvaluator;
+
     @Override
-    public BigDecimal calculateBilling(List<Trip> trips, BillingConfiguration config) {
-        BigDecimal totalCost = BigDecimal.ZERO;
+    public BillingResult calculate(List<? extends BillableTrip> trips, BillingConfiguration config,
+                                   boolean withLineItems) {
+        // Resolved once per call: bulk fixed-point or compiled rules
+        TripIncentives incentives = incentiveRules.incentivesFor(trips, config);
+
+        BillingPartial totals = parallelEvaluator.evaluate(trips.size(), withLineItems, (from, to, partial) -> {
+            for (int i = from; i < to; i++) {
+                BillableTrip trip = trips.get(i);
 
-        for (Trip trip : trips) {
-            // Base cost per trip
-            BigDecimal tripCost = config.getCostPerTrip();
+                // Base cost per trip
+                BigDecimal tripCost = config.getCostPerTrip();
 
-            // Distance-based cost
-            BigDecimal distanceCost = trip.getDistanceKm()
-                    .multiply(config.getCostPerKilometer());
+                // Distance-based cost
+                BigDecimal distanceCost = trip.getDistanceKm()
+                        .multiply(config.getCostPerKilometer());
 
-            BigDecimal baseCost = tripCost.add(distanceCost);
-            trip.setBaseCost(baseCost);
+                BigDecimal baseCost = tripCost.add(distanceCost);
 
-            // Calculate incentives
-            calculateIncentives(trip, config);
+                // Calculate incentives
+                TripCharge charge = incentives.charge(i, trip);
+                partial.addTrip(trip, charge);
 
-            // Total cost for this trip
-            BigDecimal tripTotal = baseCost
-                    .add(trip.getVendorIncentive())
-                    .add(trip.getEmployeeIncentive());
-            trip.setTotalCost(tripTotal);
+                // Total cost for this trip
+                BigDecimal tripTotal = baseCost
+                        .add(charge.getVendorIncentive())
+                        .add(charge.getEmployeeIncentive());
 
-            totalCost = totalCost.add(tripTotal);
-        }
+                partial.addCost(tripTotal);
+                partial.addLineItem(charge.toBuilder()
+                        .baseCost(baseCost)
+                        .totalCost(tripTotal)
+                        .build());
+            }
+        });
 
-        return totalCost;
+        return BillingResult.of(trips.size(), totals.getDistance(), totals.getDuration(),
+                totals.getIncentives(), totals.getCost(), totals.getLineItems());
     }
 
     @Override
-    public void calculateIncentives(Trip trip, BillingConfiguration config) {
-        BigDecimal vendorIncentive = BigDecimal.ZERO;
-        BigDecimal employeeIncentive = BigDecimal.ZERO;
-
-        // Extra kilometers incentive
-        BigDecimal extraKm = trip.getDistanceKm()
-                .subtract(config.getStandardKilometersPerTrip());
-        if (extraKm.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraKilometers(extraKm);
-            vendorIncentive = vendorIncentive.add(
-                    extraKm.multiply(config.getExtraKilometerRate())
-            );
-        }
-
-        // Extra hours incentive
-        BigDecimal extraHours = trip.getDurationHours()
-                .subtract(config.getStandardHoursPerTrip());
-        if (extraHours.compareTo(BigDecimal.ZERO) > 0) {
-            trip.setExtraHours(extraHours);
-            BigDecimal extraHourIncentive = extraHours.multiply(config.getExtraHourRate());
-            vendorIncentive = vendorIncentive.add(extraHourIncentive);
-            employeeIncentive = extraHourIncentive.multiply(BigDecimal.valueOf(0.5));
-        }
-
-        trip.setVendorIncentive(vendorIncentive);
-        trip.setEmployeeIncentive(employeeIncentive);
+    public TripCharge calculateIncentives(BillableTrip trip, BillingConfiguration config) {
+        return incentiveRules.programFor(config).evaluate(trip, config);
     }
 }
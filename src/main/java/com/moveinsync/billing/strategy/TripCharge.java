@@ -0,0 +1,44 @@
+package com.moveinsync.billing.strategy;
+
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.model.entity.BillingLineItem;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable per-trip line item produced by a billing strategy.
+ * Fields a model does not price per trip stay null (e.g. baseCost for trips
+ * covered by a package), mirroring which Trip columns the strategy owns.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TripCharge {
+    Long tripId;
+    BigDecimal baseCost;
+    BigDecimal extraKilometers;
+    BigDecimal extraHours;
+    BigDecimal vendorIncentive;
+    BigDecimal employeeIncentive;
+    BigDecimal totalCost;
+
+    /**
+     * Line item persisting this charge for the trip under a billing record.
+     */
+    public BillingLineItem toLineItem(Long billingRecordId, TripBillingRow trip) {
+        return BillingLineItem.builder()
+                .billingRecordId(billingRecordId)
+                .tripId(trip.getId())
+                .vendorId(trip.getVendorId())
+                .employeeId(trip.getEmployeeId())
+                .tripDate(trip.getTripDate())
+                .baseCost(baseCost)
+                .extraKilometers(extraKilometers)
+                .extraHours(extraHours)
+                .vendorIncentive(vendorIncentive)
+                .employeeIncentive(employeeIncentive)
+                .totalCost(totalCost)
+                .build();
+    }
+}
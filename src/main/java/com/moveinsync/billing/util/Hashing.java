@@ -0,0 +1,30 @@
+package com.moveinsync.billing.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Seeded 64-bit string hash for probabilistic structures (Bloom filters,
+ * sketches): FNV-1a over UTF-8 bytes, finalized with murmur3's fmix64.
+ */
+public final class Hashing {
+
+    public static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    public static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private Hashing() {
+    }
+
+    public static long hash(String value, long seed) {
+        long h = seed;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,82 @@
+package com.moveinsync.billing.validation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Static augmented interval tree over half-open intervals [start, end).
+ * Intervals are sorted by start and laid out as an implicit balanced BST
+ * (the middle of each range is the node); every node stores the max end of
+ * its subtree so whole subtrees that end before a query are skipped.
+ * Build: O(n log n), stabbing/overlap query: O(log n + k)
+ */
+public class IntervalTree<T> {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final List<T> items;
+
+    public IntervalTree(List<T> values, ToLongFunction<T> startOf, ToLongFunction<T> endOf) {
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparingLong(startOf));
+        int n = sorted.size();
+        this.items = sorted;
+        this.starts = new long[n];
+        this.ends = new long[n];
+        this.maxEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = startOf.applyAsLong(sorted.get(i));
+            ends[i] = endOf.applyAsLong(sorted.get(i));
+        }
+        buildMaxEnds(0, n);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Item at a position in start order.
+     */
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Visits every stored interval overlapping [start, end) with its position in start order.
+     */
+    public void forEachOverlap(long start, long end, ObjIntConsumer<T> visitor) {
+        search(0, items.size(), start, end, visitor);
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    private void search(int lo, int hi, long start, long end, ObjIntConsumer<T> visitor) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] <= start) {
+            return;
+        }
+        search(lo, mid, start, end, visitor);
+        if (starts[mid] < end) {
+            if (ends[mid] > start) {
+                visitor.accept(items.get(mid), mid);
+            }
+            search(mid + 1, hi, start, end, visitor);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.moveinsync.billing.validation;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Time window an employee spends on a trip: [tripDate, tripDate + durationHours).
+ * tripId is null for trips that are still being ingested.
+ */
+@Value
+@AllArgsConstructor
+public class TripInterval {
+    Long tripId;
+    String tripCode;
+    Long employeeId;
+    Long vendorId;
+    LocalDateTime tripDate;
+    BigDecimal durationHours;
+
+    public long startSecond() {
+        return tripDate.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public long endSecond() {
+        return startSecond() + durationHours.multiply(BigDecimal.valueOf(3600)).longValue();
+    }
+}
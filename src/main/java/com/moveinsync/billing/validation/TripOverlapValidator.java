@@ -0,0 +1,166 @@
+package com.moveinsync.billing.validation;
+
+import com.moveinsync.billing.dto.TripIngestDTO;
+import com.moveinsync.billing.dto.TripOverlapDTO;
+import com.moveinsync.billing.dto.TripOverlapReportDTO;
+import com.moveinsync.billing.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Detects trips of the same employee whose time windows overlap, which is
+ * how the same ride gets billed by two vendors.
+ * Trips are grouped per employee and indexed in an interval tree, giving
+ * O(n log n + k) for n trips and k conflicting pairs.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TripOverlapValidator {
+
+    private final TripRepository tripRepository;
+
+    // Trips longer than this are not looked up across a day or month boundary
+    @Value("${billing.validation.max-trip-hours:24}")
+    private long maxTripHours;
+
+    /**
+     * All overlapping pairs with at least one trip starting in the month,
+     * including trips that started up to maxTripHours before it and run
+     * into it.
+     */
+    @Transactional(readOnly = true)
+    public TripOverlapReportDTO generateMonthlyReport(int month, int year) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
+        List<TripInterval> intervals = tripRepository.findIntervalsByDateRange(
+                monthStart.minusHours(maxTripHours), yearMonth.atEndOfMonth().atTime(23, 59, 59));
+
+        // Pairs entirely before the month belong to the previous month's report
+        List<TripOverlapDTO> conflicts = findOverlaps(intervals).stream()
+                .filter(o -> !o.getFirstStart().isBefore(monthStart) || !o.getSecondStart().isBefore(monthStart))
+                .collect(Collectors.toList());
+        return TripOverlapReportDTO.builder()
+                .month(month)
+                .year(year)
+                .tripsChecked((int) intervals.stream()
+                        .filter(interval -> !interval.getTripDate().isBefore(monthStart))
+                        .count())
+                .employeesWithConflicts((int) conflicts.stream()
+                        .map(TripOverlapDTO::getEmployeeId).distinct().count())
+                .conflicts(conflicts)
+                .build();
+    }
+
+    /**
+     * Overlaps involving at least one of the vendor's trips in the month,
+     * checked against the same employees' trips with every vendor, including
+     * trips that started up to maxTripHours before the month.
+     */
+    @Transactional(readOnly = true)
+    public List<TripOverlapDTO> findVendorOverlaps(Long vendorId, int month, int year) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
+        List<TripInterval> intervals = tripRepository.findIntervalsForVendorEmployees(
+                vendorId, monthStart.minusHours(maxTripHours), yearMonth.atEndOfMonth().atTime(23, 59, 59));
+
+        return findOverlaps(intervals).stream()
+                .filter(o -> (vendorId.equals(o.getFirstVendorId()) && !o.getFirstStart().isBefore(monthStart))
+                        || (vendorId.equals(o.getSecondVendorId()) && !o.getSecondStart().isBefore(monthStart)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Overlaps between incoming trips and each other or stored trips of the
+     * same employees. Costs one indexed query per batch.
+     */
+    @Transactional(readOnly = true)
+    public List<TripOverlapDTO> findIncomingOverlaps(List<TripIngestDTO> incoming) {
+        if (incoming.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> employeeIds = new HashSet<>();
+        LocalDateTime from = LocalDateTime.MAX;
+        LocalDateTime to = LocalDateTime.MIN;
+        List<TripInterval> intervals = new ArrayList<>(incoming.size());
+        for (TripIngestDTO trip : incoming) {
+            TripInterval interval = new TripInterval(null, trip.getTripCode(), trip.getEmployeeId(),
+                    trip.getVendorId(), trip.getTripDate(), trip.getDurationHours());
+            LocalDateTime end = LocalDateTime.ofEpochSecond(interval.endSecond(), 0, ZoneOffset.UTC);
+            employeeIds.add(trip.getEmployeeId());
+            from = trip.getTripDate().isBefore(from) ? trip.getTripDate() : from;
+            to = end.isAfter(to) ? end : to;
+            intervals.add(interval);
+        }
+
+        Set<String> incomingCodes = intervals.stream().map(TripInterval::getTripCode).collect(Collectors.toSet());
+        tripRepository.findIntervalsByEmployeeIds(employeeIds, from.minusHours(maxTripHours), to).stream()
+                .filter(stored -> !incomingCodes.contains(stored.getTripCode()))
+                .forEach(intervals::add);
+
+        return findOverlaps(intervals).stream()
+                .filter(o -> o.getFirstTripId() == null || o.getSecondTripId() == null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Time Complexity: O(n log n + k)
+     */
+    List<TripOverlapDTO> findOverlaps(List<TripInterval> intervals) {
+        Map<Long, List<TripInterval>> byEmployee = intervals.stream()
+                .collect(Collectors.groupingBy(TripInterval::getEmployeeId));
+
+        List<TripOverlapDTO> conflicts = new ArrayList<>();
+        byEmployee.forEach((employeeId, trips) -> {
+            if (trips.size() < 2) {
+                return;
+            }
+            IntervalTree<TripInterval> tree = new IntervalTree<>(
+                    trips, TripInterval::startSecond, TripInterval::endSecond);
+            for (int i = 0; i < tree.size(); i++) {
+                TripInterval first = tree.get(i);
+                int self = i;
+                // Report each pair once: only partners later in start order
+                tree.forEachOverlap(first.startSecond(), first.endSecond(), (second, index) -> {
+                    if (index > self) {
+                        conflicts.add(toDTO(first, second));
+                    }
+                });
+            }
+        });
+
+        if (!conflicts.isEmpty()) {
+            log.warn("Found {} overlapping trip pairs among {} trips", conflicts.size(), intervals.size());
+        }
+        return conflicts;
+    }
+
+    private TripOverlapDTO toDTO(TripInterval first, TripInterval second) {
+        long overlapSeconds = Math.min(first.endSecond(), second.endSecond())
+                - Math.max(first.startSecond(), second.startSecond());
+        return TripOverlapDTO.builder()
+                .employeeId(first.getEmployeeId())
+                .firstTripId(first.getTripId())
+                .firstTripCode(first.getTripCode())
+                .firstVendorId(first.getVendorId())
+                .firstStart(first.getTripDate())
+                .firstEnd(LocalDateTime.ofEpochSecond(first.endSecond(), 0, ZoneOffset.UTC))
+                .secondTripId(second.getTripId())
+                .secondTripCode(second.getTripCode())
+                .secondVendorId(second.getVendorId())
+                .secondStart(second.getTripDate())
+                .secondEnd(LocalDateTime.ofEpochSecond(second.endSecond(), 0, ZoneOffset.UTC))
+                .overlapMinutes(overlapSeconds / 60)
+                .build();
+    }
+}
@@ -1,7 +1,22 @@
-
-INSERT INTO users (username, password, email, role, active, created_at, updated_at) VALUES ('admin', '$2a$10$mGPHHvZEl0Uqctjml7a5aOehhqO47kKgdhhpwkvbLERVZfsz.1GZC', 'admin@billing.com', 'ADMIN', true, NOW(), NOW()) ON CONFLICT DO NOTHING;
-INSERT INTO users (username, password, email, role, active, employee_id, created_at, updated_at) VALUES ('abhikakm', '$2a$10$SoqM2SJb1uSKwyBHTg/8r..oW5EC/2F8jEnuKMNMFhrXacTotakqe', 'abhik@techcorp.com', 'EMPLOYEE', true, 1, NOW(), NOW()) ON CONFLICT DO NOTHING;
-INSERT INTO users (username, password, email, role, active, vendor_id, created_at, updated_at) VALUES ('swiftcabs', '$2a$10$l/ZIbSKdbHIOqCsJSAYMj.pbVm5z3jABaTnz3P86996FC67WkKzGm', 'swift@cabs.com', 'VENDOR', true, 1, NOW(), NOW()) ON CONFLICT DO NOTHING;
+-- Sample data. Run after the application has created the schema (ddl-auto: update):
+--   psql -U postgres -d moveinsync -f src/main/resources/data.sql
+-- Ids come from <entity>_seq sequences (increment 50, Hibernate's pooled optimizer).
+-- Rows without an explicit id draw from them through the column defaults below;
+-- the sequences are realigned above the seeded ids at the end of this script.
+
+CREATE SEQUENCE IF NOT EXISTS client_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS vendor_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS employee_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS trip_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS billing_configuration_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_seq INCREMENT BY 50;
+
+ALTER TABLE clients ALTER COLUMN id SET DEFAULT nextval('client_seq');
+ALTER TABLE vendors ALTER COLUMN id SET DEFAULT nextval('vendor_seq');
+ALTER TABLE employees ALTER COLUMN id SET DEFAULT nextval('employee_seq');
+ALTER TABLE trips ALTER COLUMN id SET DEFAULT nextval('trip_seq');
+ALTER TABLE billing_configurations ALTER COLUMN id SET DEFAULT nextval('billing_configuration_seq');
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('user_seq');
 
 
 INSERT INTO clients (id, client_code, name, email, phone, address, active, created_at, updated_at)
@@ -69,9 +84,15 @@ VALUES
     (8, 'TRP008', 3, 3, '2025-11-04 19:00:00', 15.00, 1.0, 'Office', 'Home', false, NOW(), NOW())
     ON CONFLICT DO NOTHING;
 
--- Reset sequences
-SELECT setval('clients_id_seq', (SELECT MAX(id) FROM clients));
-SELECT setval('vendors_id_seq', (SELECT MAX(id) FROM vendors));
-SELECT setval('employees_id_seq', (SELECT MAX(id) FROM employees));
-SELECT setval('billing_configurations_id_seq', (SELECT MAX(id) FROM billing_configurations));
-SELECT setval('trips_id_seq', (SELECT MAX(id) FROM trips));
+-- Users reference the employees and vendors above
+INSERT INTO users (username, password, email, role, active, created_at, updated_at) VALUES ('admin', '$2a$10$mGPHHvZEl0Uqctjml7a5aOehhqO47kKgdhhpwkvbLERVZfsz.1GZC', 'admin@billing.com', 'ADMIN', true, NOW(), NOW()) ON CONFLICT DO NOTHING;
+INSERT INTO users (username, password, email, role, active, employee_id, created_at, updated_at) VALUES ('abhikakm', '$2a$10$SoqM2SJb1uSKwyBHTg/8r..oW5EC/2F8jEnuKMNMFhrXacTotakqe', 'abhik@techcorp.com', 'EMPLOYEE', true, 1, NOW(), NOW()) ON CONFLICT DO NOTHING;
+INSERT INTO users (username, password, email, role, active, vendor_id, created_at, updated_at) VALUES ('swiftcabs', '$2a$10$l/ZIbSKdbHIOqCsJSAYMj.pbVm5z3jABaTnz3P86996FC67WkKzGm', 'swift@cabs.com', 'VENDOR', true, 1, NOW(), NOW()) ON CONFLICT DO NOTHING;
+
+-- Align every sequence with the seeded ids so the next pooled block starts above them
+SELECT setval('client_seq', COALESCE((SELECT MAX(id) FROM clients), 0) + 50, false);
+SELECT setval('vendor_seq', COALESCE((SELECT MAX(id) FROM vendors), 0) + 50, false);
+SELECT setval('employee_seq', COALESCE((SELECT MAX(id) FROM employees), 0) + 50, false);
+SELECT setval('trip_seq', COALESCE((SELECT MAX(id) FROM trips), 0) + 50, false);
+SELECT setval('billing_configuration_seq', COALESCE((SELECT MAX(id) FROM billing_configurations), 0) + 50, false);
+SELECT setval('user_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
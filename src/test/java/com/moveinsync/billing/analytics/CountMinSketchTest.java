@@ -0,0 +1,92 @@
+package com.moveinsync.billing.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndMostlyStaysWithinTheBound() {
+        CountMinSketch sketch = new CountMinSketch(5, 272);
+        Map<String, Long> truth = feed(sketch, new Random(1), 50_000);
+
+        int withinBound = 0;
+        for (Map.Entry<String, Long> entry : truth.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).as(entry.getKey()).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= sketch.errorBound()) {
+                withinBound++;
+            }
+        }
+        // The bound holds with probability 1 - e^-5 per item
+        assertThat(withinBound).isGreaterThanOrEqualTo((int) (truth.size() * 0.95));
+    }
+
+    @Test
+    void mergeEqualsSketchOfCombinedStream() {
+        CountMinSketch a = new CountMinSketch(4, 128);
+        CountMinSketch b = new CountMinSketch(4, 128);
+        CountMinSketch combined = new CountMinSketch(4, 128);
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            String route = "R" + random.nextInt(2_000);
+            long weight = 1 + random.nextInt(5);
+            (i % 3 == 0 ? a : b).add(route, weight);
+            combined.add(route, weight);
+        }
+
+        CountMinSketch merged = CountMinSketch.merge(a, b);
+
+        assertThat(merged.getTotalWeight()).isEqualTo(combined.getTotalWeight());
+        for (int i = 0; i < 2_000; i++) {
+            assertThat(merged.estimate("R" + i)).isEqualTo(combined.estimate("R" + i));
+        }
+    }
+
+    @Test
+    void mergeRejectsDifferentDepth() {
+        assertThatThrownBy(() -> CountMinSketch.merge(new CountMinSketch(4, 128), new CountMinSketch(5, 128)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mergeRejectsDifferentWidth() {
+        assertThatThrownBy(() -> CountMinSketch.merge(new CountMinSketch(4, 128), new CountMinSketch(4, 256)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void survivesWriteAndRead() throws IOException {
+        CountMinSketch sketch = new CountMinSketch(3, 64);
+        Map<String, Long> truth = feed(sketch, new Random(3), 1_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        CountMinSketch read = CountMinSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.getTotalWeight()).isEqualTo(sketch.getTotalWeight());
+        truth.keySet().forEach(route -> assertThat(read.estimate(route)).isEqualTo(sketch.estimate(route)));
+    }
+
+    private static Map<String, Long> feed(CountMinSketch sketch, Random random, int trips) {
+        Map<String, Long> truth = new HashMap<>();
+        for (int i = 0; i < trips; i++) {
+            String route = "R" + (int) Math.floor(Math.pow(5_000, random.nextDouble()));
+            long weight = 1 + random.nextInt(3);
+            sketch.add(route, weight);
+            truth.merge(route, weight, Long::sum);
+        }
+        return truth;
+    }
+}
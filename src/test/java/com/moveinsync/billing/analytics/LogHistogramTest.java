@@ -0,0 +1,139 @@
+package com.moveinsync.billing.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogHistogramTest {
+
+    // Covers every bucket of values up to about 10^12 hundredths
+    private static final int MAX_INDEX = LogHistogram.indexOf(1_000_000_000_000L);
+
+    @Test
+    void bucketBoundsRoundTripThroughIndexOf() {
+        for (int index = 0; index <= MAX_INDEX; index++) {
+            long lower = LogHistogram.lowerBound(index);
+            long upper = LogHistogram.upperBound(index);
+
+            assertThat(LogHistogram.indexOf(lower)).as("lower of %d", index).isEqualTo(index);
+            assertThat(LogHistogram.indexOf(upper)).as("upper of %d", index).isEqualTo(index);
+            // Buckets tile the value range without gaps
+            assertThat(LogHistogram.lowerBound(index + 1)).isEqualTo(upper + 1);
+        }
+    }
+
+    @Test
+    void everyValueFallsInsideItsBucket() {
+        Random random = new Random(1);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.pow(10, random.nextDouble() * 12);
+        }
+        long[] edges = {0, 1, 63, 64, 65, 127, 128, 129, 4095, 4096, 1L << 40, (1L << 40) - 1};
+
+        for (long value : concat(values, edges)) {
+            int index = LogHistogram.indexOf(value);
+            assertThat(value).isBetween(LogHistogram.lowerBound(index), LogHistogram.upperBound(index));
+        }
+    }
+
+    @Test
+    void smallValuesAreExactAndBucketsStayWithinRelativeError() {
+        for (int index = 0; index < 64; index++) {
+            assertThat(LogHistogram.upperBound(index)).isEqualTo(LogHistogram.lowerBound(index));
+        }
+        for (int index = 64; index <= MAX_INDEX; index++) {
+            long lower = LogHistogram.lowerBound(index);
+            long width = LogHistogram.upperBound(index) - lower + 1;
+            assertThat((double) width / lower).isLessThanOrEqualTo(LogHistogram.RELATIVE_ERROR);
+        }
+    }
+
+    @Test
+    void percentilesStayWithinRelativeErrorOfExactValues() {
+        Random random = new Random(2);
+        LogHistogram histogram = new LogHistogram();
+        long[] hundredths = new long[20_000];
+        for (int i = 0; i < hundredths.length; i++) {
+            // Trip distances between 0.01 km and about 500 km, skewed short
+            hundredths[i] = 1 + (long) Math.pow(50_000, random.nextDouble());
+            histogram.record(BigDecimal.valueOf(hundredths[i], 2));
+        }
+        Arrays.sort(hundredths);
+
+        for (double percentile : new double[]{1, 10, 50, 90, 95, 99, 99.9, 100}) {
+            int rank = (int) Math.max(1, Math.ceil(percentile / 100.0 * hundredths.length));
+            long exact = hundredths[rank - 1];
+            long reported = histogram.valueAtPercentile(percentile).movePointRight(2).longValueExact();
+
+            assertThat((double) Math.abs(reported - exact))
+                    .as("p%s", percentile)
+                    .isLessThanOrEqualTo(exact * LogHistogram.RELATIVE_ERROR);
+        }
+        assertThat(histogram.getMax()).isEqualTo(BigDecimal.valueOf(hundredths[hundredths.length - 1], 2));
+    }
+
+    @Test
+    void bytesRoundTripIncludingMultiByteVarints() throws IOException {
+        LogHistogram histogram = new LogHistogram();
+        histogram.recordHundredths(0, 1);
+        histogram.recordHundredths(63, 200);
+        histogram.recordHundredths(12_345, 1L << 35);
+        histogram.recordHundredths(999_999_999_999L, 3);
+
+        LogHistogram read = LogHistogram.fromBytes(histogram.toBytes());
+
+        assertThat(read.getTotalCount()).isEqualTo(histogram.getTotalCount());
+        assertThat(read.getMax()).isEqualTo(histogram.getMax());
+        for (double percentile : new double[]{0, 1e-9, 50, 99.99999999, 100}) {
+            assertThat(read.valueAtPercentile(percentile)).isEqualTo(histogram.valueAtPercentile(percentile));
+        }
+        assertThat(read.toBytes()).isEqualTo(histogram.toBytes());
+    }
+
+    @Test
+    void emptyHistogramRoundTrips() throws IOException {
+        LogHistogram read = LogHistogram.fromBytes(new LogHistogram().toBytes());
+
+        assertThat(read.getTotalCount()).isZero();
+        assertThat(read.valueAtPercentile(50)).isNull();
+        assertThat(read.getMax()).isNull();
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] bytes = new LogHistogram().toBytes();
+        bytes[0] = 99;
+
+        assertThatThrownBy(() -> LogHistogram.fromBytes(bytes)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void mergeEqualsRecordingEverything() {
+        Random random = new Random(3);
+        LogHistogram a = new LogHistogram();
+        LogHistogram b = new LogHistogram();
+        LogHistogram all = new LogHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            long value = (long) Math.pow(10, random.nextDouble() * (i % 2 == 0 ? 4 : 9));
+            (i % 2 == 0 ? a : b).recordHundredths(value, 1);
+            all.recordHundredths(value, 1);
+        }
+
+        a.merge(b);
+
+        assertThat(a.toBytes()).isEqualTo(all.toBytes());
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
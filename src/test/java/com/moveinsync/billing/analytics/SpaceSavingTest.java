@@ -0,0 +1,126 @@
+package com.moveinsync.billing.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void countsExactlyWhileCountersRemain() {
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        summary.add("A-B", 3);
+        summary.add("B-C", 1);
+        summary.add("A-B", 2);
+
+        List<SpaceSaving.Counter> top = summary.top(10);
+        assertThat(top).extracting(SpaceSaving.Counter::getItem).containsExactly("A-B", "B-C");
+        assertThat(top).extracting(SpaceSaving.Counter::getCount).containsExactly(5L, 1L);
+        assertThat(top).extracting(SpaceSaving.Counter::getError).containsOnly(0L);
+    }
+
+    @Test
+    void neverUnderestimatesAndBoundsTheOverestimate() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        feed(summary, truth, new Random(1), 20_000, 1);
+
+        assertBounds(summary, truth);
+    }
+
+    @Test
+    void tracksEveryItemAboveTotalOverCapacity() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        feed(summary, truth, new Random(2), 20_000, 1);
+
+        assertHeavyHittersTracked(summary, truth);
+    }
+
+    @Test
+    void mergeKeepsOverestimateGuaranteeAndErrorBound() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving a = new SpaceSaving(CAPACITY);
+        SpaceSaving b = new SpaceSaving(CAPACITY);
+        // Different skews, so each side's heavy hitters are light on the other
+        feed(a, truth, new Random(3), 20_000, 1);
+        feed(b, truth, new Random(4), 20_000, 7);
+
+        SpaceSaving merged = SpaceSaving.merge(a, b);
+
+        long total = truth.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(merged.top(Integer.MAX_VALUE)).hasSizeLessThanOrEqualTo(CAPACITY);
+        assertBounds(merged, truth);
+        for (SpaceSaving.Counter counter : merged.top(CAPACITY)) {
+            assertThat(counter.getError()).isLessThanOrEqualTo(total / CAPACITY);
+        }
+        assertHeavyHittersTracked(merged, truth);
+    }
+
+    @Test
+    void mergeWithEmptySummaryChangesNothing() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        feed(summary, truth, new Random(5), 5_000, 1);
+
+        SpaceSaving merged = SpaceSaving.merge(summary, new SpaceSaving(CAPACITY));
+
+        assertThat(merged.top(CAPACITY)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(summary.top(CAPACITY));
+    }
+
+    @Test
+    void survivesWriteAndRead() throws IOException {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        feed(summary, truth, new Random(6), 5_000, 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        summary.writeTo(new DataOutputStream(bytes));
+
+        SpaceSaving read = SpaceSaving.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.top(CAPACITY)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(summary.top(CAPACITY));
+    }
+
+    private static void assertBounds(SpaceSaving summary, Map<String, Long> truth) {
+        for (SpaceSaving.Counter counter : summary.top(Integer.MAX_VALUE)) {
+            long actual = truth.getOrDefault(counter.getItem(), 0L);
+            assertThat(counter.getCount()).as(counter.getItem()).isGreaterThanOrEqualTo(actual);
+            assertThat(counter.getCount() - counter.getError()).as(counter.getItem()).isLessThanOrEqualTo(actual);
+        }
+    }
+
+    private static void assertHeavyHittersTracked(SpaceSaving summary, Map<String, Long> truth) {
+        long total = truth.values().stream().mapToLong(Long::longValue).sum();
+        List<String> tracked = summary.top(Integer.MAX_VALUE).stream().map(SpaceSaving.Counter::getItem).toList();
+        truth.forEach((item, weight) -> {
+            if (weight > total / CAPACITY) {
+                assertThat(tracked).as("heavy hitter " + item).contains(item);
+            }
+        });
+    }
+
+    // Zipf-like routes over 1,000 pairs; the offset rotates which ones are heavy
+    private static void feed(SpaceSaving summary, Map<String, Long> truth, Random random, int trips, int offset) {
+        for (int i = 0; i < trips; i++) {
+            int rank = (int) Math.floor(Math.pow(1_000, random.nextDouble()));
+            String route = "R" + (rank * offset % 1_000);
+            long weight = 1 + random.nextInt(3);
+            summary.add(route, weight);
+            truth.merge(route, weight, Long::sum);
+        }
+    }
+}
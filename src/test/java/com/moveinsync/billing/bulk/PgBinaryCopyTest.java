@@ -0,0 +1,169 @@
+package com.moveinsync.billing.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the binary COPY encodings byte for byte against PostgreSQL's wire
+ * format, since a wrong numeric or timestamp is stored without any error.
+ */
+class PgBinaryCopyTest {
+
+    // Signature, flags and header extension length
+    private static final int HEADER_BYTES = 11 + 4 + 4;
+
+    @FunctionalInterface
+    private interface Field {
+        void write(PgBinaryCopy copy) throws Exception;
+    }
+
+    @Test
+    void writesHeaderRowCountAndTrailer() throws Exception {
+        byte[] stream = copy(2, copy -> copy.int4(7).int8(-1L));
+
+        assertThat(Arrays.copyOf(stream, 11))
+                .containsExactly('P', 'G', 'C', 'O', 'P', 'Y', '\n', 0xFF, '\r', '\n', 0);
+        ByteBuffer buffer = ByteBuffer.wrap(stream, 11, stream.length - 11);
+        assertThat(buffer.getInt()).isZero();
+        assertThat(buffer.getInt()).isZero();
+        assertThat(buffer.getShort()).isEqualTo((short) 2);
+        assertThat(buffer.getInt()).isEqualTo(4);
+        assertThat(buffer.getInt()).isEqualTo(7);
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getLong()).isEqualTo(-1L);
+        assertThat(buffer.getShort()).isEqualTo((short) -1);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void encodesZeroWithoutDigits() throws Exception {
+        assertThat(field(copy -> copy.numeric(new BigDecimal("0.00"))))
+                .isEqualTo(numeric(0, 0x0000, 2));
+        assertThat(field(copy -> copy.numeric(BigDecimal.ZERO)))
+                .isEqualTo(numeric(0, 0x0000, 0));
+    }
+
+    @Test
+    void encodesValuesBelowOneWithNegativeWeight() throws Exception {
+        assertThat(field(copy -> copy.numeric(new BigDecimal("0.05"))))
+                .isEqualTo(numeric(-1, 0x0000, 2, 500));
+        assertThat(field(copy -> copy.numeric(new BigDecimal("0.00012"))))
+                .isEqualTo(numeric(-1, 0x0000, 5, 1, 2000));
+    }
+
+    @Test
+    void dropsTrailingZeroGroupsButKeepsDisplayScale() throws Exception {
+        assertThat(field(copy -> copy.numeric(new BigDecimal("10000.00"))))
+                .isEqualTo(numeric(1, 0x0000, 2, 1));
+        assertThat(field(copy -> copy.numeric(new BigDecimal("1E+8"))))
+                .isEqualTo(numeric(2, 0x0000, 0, 1));
+    }
+
+    @Test
+    void encodesNegativeValuesWithSignFlag() throws Exception {
+        assertThat(field(copy -> copy.numeric(new BigDecimal("-1234.5678"))))
+                .isEqualTo(numeric(0, 0x4000, 4, 1234, 5678));
+        assertThat(field(copy -> copy.numeric(new BigDecimal("-0.50"))))
+                .isEqualTo(numeric(-1, 0x4000, 2, 5000));
+    }
+
+    @Test
+    void encodesScaleAboveFour() throws Exception {
+        assertThat(field(copy -> copy.numeric(new BigDecimal("3.141592"))))
+                .isEqualTo(numeric(0, 0x0000, 6, 3, 1415, 9200));
+        assertThat(field(copy -> copy.numeric(new BigDecimal("12345678.9"))))
+                .isEqualTo(numeric(1, 0x0000, 1, 1234, 5678, 9000));
+    }
+
+    @Test
+    void encodesTimestampsAsMicrosecondsFrom2000() throws Exception {
+        assertThat(field(copy -> copy.timestamp(LocalDateTime.of(2000, 1, 1, 0, 0))))
+                .isEqualTo(int8Field(0L));
+        assertThat(field(copy -> copy.timestamp(LocalDateTime.of(1999, 12, 31, 23, 59, 59, 500_000_000))))
+                .isEqualTo(int8Field(-500_000L));
+        assertThat(field(copy -> copy.timestamp(LocalDateTime.of(1970, 1, 1, 0, 0))))
+                .isEqualTo(int8Field(-946_684_800_000_000L));
+        assertThat(field(copy -> copy.timestamp(LocalDateTime.of(2025, 11, 1, 9, 0, 0, 123_456_000))))
+                .isEqualTo(int8Field(815_302_800_123_456L));
+    }
+
+    @Test
+    void encodesNullsAsMinusOneLength() throws Exception {
+        byte[] minusOne = ByteBuffer.allocate(4).putInt(-1).array();
+
+        assertThat(field(copy -> copy.int8(null))).isEqualTo(minusOne);
+        assertThat(field(copy -> copy.text(null))).isEqualTo(minusOne);
+        assertThat(field(copy -> copy.timestamp(null))).isEqualTo(minusOne);
+        assertThat(field(copy -> copy.numeric(null))).isEqualTo(minusOne);
+    }
+
+    @Test
+    void encodesTextAsUtf8ByteLength() throws Exception {
+        assertThat(field(copy -> copy.text("Bengaluru – HSR")))
+                .isEqualTo(ByteBuffer.allocate(4 + 17).putInt(17)
+                        .put("Bengaluru – HSR".getBytes(StandardCharsets.UTF_8)).array());
+    }
+
+    // Expected numeric field: length, ndigits, weight, sign, dscale, base-10000 digits
+    private static byte[] numeric(int weight, int sign, int scale, int... digits) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 2 * digits.length);
+        buffer.putInt(8 + 2 * digits.length);
+        buffer.putShort((short) digits.length);
+        buffer.putShort((short) weight);
+        buffer.putShort((short) sign);
+        buffer.putShort((short) scale);
+        for (int digit : digits) {
+            buffer.putShort((short) digit);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] int8Field(long value) {
+        return ByteBuffer.allocate(12).putInt(8).putLong(value).array();
+    }
+
+    // Bytes of a single field written as a one-column row
+    private static byte[] field(Field field) throws Exception {
+        byte[] stream = copy(1, field);
+        // Skip the header and the row's column count; drop the trailer
+        return Arrays.copyOfRange(stream, HEADER_BYTES + 2, stream.length - 2);
+    }
+
+    private static byte[] copy(int columns, Field row) throws Exception {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        CopyIn copyIn = mock(CopyIn.class);
+        doAnswer(invocation -> {
+            sent.write(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        when(copyIn.getHandledRowCount()).thenReturn(1L);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+        PGConnection connection = mock(PGConnection.class);
+        when(connection.getCopyAPI()).thenReturn(copyManager);
+
+        try (PgBinaryCopy copy = PgBinaryCopy.open(connection, "trip_staging", "c", 1, 1_000,
+                (table, rows, totalRows) -> { })) {
+            row.write(copy.startRow(columns));
+            assertThat(copy.finish()).isEqualTo(1L);
+        }
+        return sent.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+package com.moveinsync.billing.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedCodeAsMissing() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("TRP" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("TRP" + i)).as("TRP" + i).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("TRP" + i);
+        }
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("OTHER" + i))
+                .count();
+        // 1% expected; allow for hash variance
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void concurrentPutsLoseNoBits() {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 10_000;
+            threads.add(new Thread(() -> {
+                for (int i = offset; i < offset + 10_000; i++) {
+                    filter.put("TRP" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        threads.forEach(thread -> {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        for (int i = 0; i < 40_000; i++) {
+            assertThat(filter.mightContain("TRP" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void survivesWriteAndRead() throws IOException {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("TRP" + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        BloomFilter read = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(read.mightContain("TRP" + i)).isTrue();
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(read.mightContain("OTHER" + i)).isEqualTo(filter.mightContain("OTHER" + i));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.moveinsync.billing.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new TripRingBuffer<Integer>(4).capacity()).isEqualTo(4);
+        assertThat(new TripRingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        // Never fewer than four slots
+        assertThat(new TripRingBuffer<Integer>(1).capacity()).isEqualTo(4);
+    }
+
+    @Test
+    void emptyBufferDrainsNothing() {
+        TripRingBuffer<Integer> buffer = new TripRingBuffer<>(4);
+        List<Integer> sink = new ArrayList<>();
+
+        assertThat(buffer.drainTo(sink, 10)).isZero();
+        assertThat(sink).isEmpty();
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.remainingCapacity()).isEqualTo(4);
+    }
+
+    @Test
+    void fullBufferRejectsOffersUntilDrained() {
+        TripRingBuffer<Integer> buffer = new TripRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.remainingCapacity()).isZero();
+
+        List<Integer> sink = new ArrayList<>();
+        assertThat(buffer.drainTo(sink, 1)).isEqualTo(1);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWraparound() {
+        TripRingBuffer<Integer> buffer = new TripRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+
+        // Three at a time into four slots, so the indexes wrap on most rounds
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+            buffer.drainTo(drained, 1);
+        }
+
+        assertThat(buffer.size()).isZero();
+        assertThat(drained).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(drained.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void drainStopsAtMax() {
+        TripRingBuffer<Integer> buffer = new TripRingBuffer<>(8);
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> sink = new ArrayList<>();
+
+        assertThat(buffer.drainTo(sink, 4)).isEqualTo(4);
+        assertThat(sink).containsExactly(0, 1, 2, 3);
+        assertThat(buffer.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,152 @@
+package com.moveinsync.billing.ingestion;
+
+import com.moveinsync.billing.dto.TripIngestDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripWriteAheadLogTest {
+
+    // Room for three records, so ten trips span four segments
+    private static final int SMALL_SEGMENT = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversEveryEntryAcrossSegmentBoundaries() throws IOException {
+        List<TripIngestDTO> trips = trips(1, 10);
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, SMALL_SEGMENT)) {
+            assertThat(wal.recover()).isEmpty();
+            wal.append(trips.subList(0, 4));
+            wal.append(trips.subList(4, 10));
+        }
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, SMALL_SEGMENT)) {
+            List<WalEntry> recovered = wal.recover();
+
+            assertThat(recovered).extracting(WalEntry::getSequence)
+                    .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+            assertThat(recovered).extracting(WalEntry::getTrip).containsExactlyElementsOf(trips);
+            // Sequences continue after the recovered tail
+            assertThat(wal.append(trips(11, 1)).get(0).getSequence()).isEqualTo(11L);
+        }
+    }
+
+    @Test
+    void dropsLastRecordWithCorruptPayload() throws IOException {
+        writeThree();
+        Path segment = segmentFiles().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[recordOffsets(bytes).get(2) + 8] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        assertRecoversFirstTwoThenAppendsAfterThem();
+    }
+
+    @Test
+    void dropsTornLastRecord() throws IOException {
+        writeThree();
+        Path segment = segmentFiles().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int last = recordOffsets(bytes).get(2);
+        int length = ByteBuffer.wrap(bytes, last, 4).getInt();
+        // Only the first half of the payload reached the disk
+        for (int i = last + 8 + length / 2; i < last + 8 + length; i++) {
+            bytes[i] = 0;
+        }
+        Files.write(segment, bytes);
+
+        assertRecoversFirstTwoThenAppendsAfterThem();
+    }
+
+    @Test
+    void doesNotReplayCheckpointedEntries() throws IOException {
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, SMALL_SEGMENT)) {
+            wal.recover();
+            wal.append(trips(1, 10));
+            int before = segmentFiles().size();
+
+            wal.checkpoint(6);
+
+            assertThat(wal.getCheckpoint()).isEqualTo(6L);
+            // Segments holding only entries up to 6 are deleted
+            assertThat(segmentFiles()).hasSizeLessThan(before);
+        }
+
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, SMALL_SEGMENT)) {
+            List<WalEntry> recovered = wal.recover();
+
+            assertThat(wal.getCheckpoint()).isEqualTo(6L);
+            assertThat(recovered).extracting(WalEntry::getSequence).containsExactly(7L, 8L, 9L, 10L);
+            assertThat(wal.append(trips(11, 1)).get(0).getSequence()).isEqualTo(11L);
+        }
+    }
+
+    private void writeThree() throws IOException {
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, 4096)) {
+            wal.recover();
+            wal.append(trips(1, 3));
+        }
+    }
+
+    private void assertRecoversFirstTwoThenAppendsAfterThem() throws IOException {
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, 4096)) {
+            assertThat(wal.recover()).extracting(WalEntry::getSequence).containsExactly(1L, 2L);
+            wal.append(trips(20, 1));
+        }
+        // The new record replaces the dropped one and is recovered intact
+        try (TripWriteAheadLog wal = new TripWriteAheadLog(directory, 4096)) {
+            List<WalEntry> recovered = wal.recover();
+            assertThat(recovered).extracting(WalEntry::getSequence).containsExactly(1L, 2L, 3L);
+            assertThat(recovered.get(2).getTrip().getTripCode()).isEqualTo("TRP20");
+        }
+    }
+
+    // Start offsets of the records in a segment, up to the zero terminator
+    private static List<Integer> recordOffsets(byte[] segment) {
+        ByteBuffer buffer = ByteBuffer.wrap(segment);
+        List<Integer> offsets = new ArrayList<>();
+        int length;
+        while ((length = buffer.getInt(buffer.position())) > 0) {
+            offsets.add(buffer.position());
+            buffer.position(buffer.position() + 8 + length);
+        }
+        return offsets;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static List<TripIngestDTO> trips(int first, int count) {
+        List<TripIngestDTO> trips = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            trips.add(TripIngestDTO.builder()
+                    .tripCode("TRP" + i)
+                    .vendorId(1L)
+                    .employeeId((long) i)
+                    .tripDate(LocalDateTime.of(2025, 11, 1, 9, 0).plusMinutes(i).plusNanos(i * 1000L))
+                    .distanceKm(new BigDecimal("12.50").add(BigDecimal.valueOf(i)))
+                    .durationHours(new BigDecimal("1.25"))
+                    .source(i % 2 == 0 ? "Home" : null)
+                    .destination("Office")
+                    .build());
+        }
+        return trips;
+    }
+}
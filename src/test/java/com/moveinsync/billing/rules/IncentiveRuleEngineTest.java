@@ -0,0 +1,79 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.strategy.TripCharge;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncentiveRuleEngineTest {
+
+    private final BillingConfiguration config = BillingConfiguration.builder()
+            .standardKilometersPerTrip(new BigDecimal("25.00"))
+            .standardHoursPerTrip(new BigDecimal("1.50"))
+            .extraKilometerRate(new BigDecimal("12.50"))
+            .extraHourRate(new BigDecimal("150.00"))
+            .build();
+
+    @Test
+    void bulkPathMatchesCompiledDefaultRulesExactly() {
+        List<TripBillingRow> trips = randomTrips(5_000, 42);
+        IncentiveProgram program = IncentiveRuleParser.compile(IncentiveRuleEngine.DEFAULT_RULES);
+        BulkIncentives bulk = BulkIncentives.compute(trips, config);
+
+        assertThat(bulk).isNotNull();
+        for (int i = 0; i < trips.size(); i++) {
+            // Equal including BigDecimal scale, so line items are identical either way
+            assertThat(bulk.charge(i, trips.get(i))).isEqualTo(program.evaluate(trips.get(i), config));
+        }
+    }
+
+    @Test
+    void defaultRulesReproduceFixedIncentives() {
+        IncentiveProgram program = IncentiveRuleParser.compile(IncentiveRuleEngine.DEFAULT_RULES);
+
+        for (TripBillingRow trip : randomTrips(1_000, 7)) {
+            BigDecimal extraKm = trip.getDistanceKm().subtract(config.getStandardKilometersPerTrip())
+                    .max(BigDecimal.ZERO);
+            BigDecimal extraHours = trip.getDurationHours().subtract(config.getStandardHoursPerTrip())
+                    .max(BigDecimal.ZERO);
+            BigDecimal hourIncentive = extraHours.multiply(config.getExtraHourRate());
+
+            TripCharge charge = program.evaluate(trip, config);
+            assertThat(charge.getVendorIncentive())
+                    .isEqualByComparingTo(extraKm.multiply(config.getExtraKilometerRate()).add(hourIncentive));
+            assertThat(charge.getEmployeeIncentive())
+                    .isEqualByComparingTo(hourIncentive.multiply(new BigDecimal("0.5")));
+        }
+    }
+
+    @Test
+    void bulkPathDeclinesValuesItCannotRepresent() {
+        List<TripBillingRow> trips = new ArrayList<>(randomTrips(10, 1));
+        trips.add(new TripBillingRow(99L, 1L, 1L, LocalDateTime.of(2025, 11, 3, 9, 0),
+                new BigDecimal("30.125"), new BigDecimal("2.00"), "A", "B"));
+
+        assertThat(BulkIncentives.compute(trips, config)).isNull();
+    }
+
+    // Two-decimal distances and durations on both sides of the standards
+    private static List<TripBillingRow> randomTrips(int count, long seed) {
+        Random random = new Random(seed);
+        List<TripBillingRow> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trips.add(new TripBillingRow((long) i + 1, 1L, (long) random.nextInt(50),
+                    LocalDateTime.of(2025, 11, 1, 0, 0).plusMinutes(random.nextInt(30 * 24 * 60)),
+                    BigDecimal.valueOf(random.nextInt(6_000), 2),
+                    BigDecimal.valueOf(random.nextInt(400), 2),
+                    "A", "B"));
+        }
+        return trips;
+    }
+}
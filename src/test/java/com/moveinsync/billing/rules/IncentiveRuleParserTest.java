@@ -0,0 +1,121 @@
+package com.moveinsync.billing.rules;
+
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.strategy.TripCharge;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncentiveRuleParserTest {
+
+    // A Wednesday and a Saturday
+    private static final LocalDateTime WEEKDAY_NOON = LocalDateTime.of(2025, 11, 12, 12, 0);
+    private static final LocalDateTime SATURDAY_NIGHT = LocalDateTime.of(2025, 11, 15, 23, 0);
+
+    private final BillingConfiguration config = BillingConfiguration.builder()
+            .standardKilometersPerTrip(new BigDecimal("20.00"))
+            .standardHoursPerTrip(new BigDecimal("1.00"))
+            .extraKilometerRate(new BigDecimal("10.00"))
+            .extraHourRate(new BigDecimal("100.00"))
+            .build();
+
+    @Test
+    void appliesArithmeticPrecedence() {
+        assertThat(vendor("vendor = 2 + 3 * 4", trip("20", "1", WEEKDAY_NOON))).isEqualByComparingTo("14");
+        assertThat(vendor("vendor = (2 + 3) * 4", trip("20", "1", WEEKDAY_NOON))).isEqualByComparingTo("20");
+        assertThat(vendor("vendor = 10 - 2 - 3", trip("20", "1", WEEKDAY_NOON))).isEqualByComparingTo("5");
+        assertThat(vendor("vendor = -2 * -3 + .5", trip("20", "1", WEEKDAY_NOON))).isEqualByComparingTo("6.5");
+    }
+
+    @Test
+    void evaluatesVariablesAndFunctions() {
+        TripBillingRow trip = trip("45", "2.5", WEEKDAY_NOON);
+
+        assertThat(vendor("vendor = extra_km", trip)).isEqualByComparingTo("25");
+        assertThat(vendor("vendor = extra_hours * hour_rate", trip)).isEqualByComparingTo("150");
+        assertThat(vendor("vendor = min(extra_km, 20) * km_rate", trip)).isEqualByComparingTo("200");
+        assertThat(vendor("vendor = max(extra_km - 30, 0)", trip)).isEqualByComparingTo("0");
+        assertThat(vendor("vendor = hour + day_of_week", trip)).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void sumsEveryMatchingRulePerTarget() {
+        String rules = String.join("\n",
+                "# tiered km rate with a night surcharge",
+                "vendor when extra_km > 0 = min(extra_km, 20) * km_rate",
+                "",
+                "vendor when extra_km > 20 = (extra_km - 20) * km_rate * 1.5  # beyond the first tier",
+                "vendor when hour >= 22 or hour < 6 = 100",
+                "employee when weekend and extra_hours > 0 = extra_hours * hour_rate * 0.75");
+        IncentiveProgram program = IncentiveRuleParser.compile(rules);
+
+        TripCharge weekday = program.evaluate(trip("45", "2", WEEKDAY_NOON), config);
+        assertThat(weekday.getVendorIncentive()).isEqualByComparingTo("275");
+        assertThat(weekday.getEmployeeIncentive()).isEqualByComparingTo("0");
+
+        TripCharge saturdayNight = program.evaluate(trip("30", "2", SATURDAY_NIGHT), config);
+        assertThat(saturdayNight.getVendorIncentive()).isEqualByComparingTo("200");
+        assertThat(saturdayNight.getEmployeeIncentive()).isEqualByComparingTo("75");
+    }
+
+    @Test
+    void combinesConditionsWithPrecedence() {
+        TripBillingRow trip = trip("25", "1", WEEKDAY_NOON);
+
+        // and binds tighter than or
+        assertThat(vendor("vendor when weekend and extra_km > 10 or hour == 12 = 1", trip)).isEqualByComparingTo("1");
+        assertThat(vendor("vendor when weekend and (extra_km > 10 or hour == 12) = 1", trip)).isEqualByComparingTo("0");
+        assertThat(vendor("vendor when not weekend and not extra_km < 5 = 1", trip)).isEqualByComparingTo("1");
+        assertThat(vendor("vendor when extra_km != 5 = 1", trip)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void tellsGroupedConditionsFromParenthesizedOperands() {
+        TripBillingRow trip = trip("45", "1", WEEKDAY_NOON);
+
+        assertThat(vendor("vendor when (extra_km - 20) * 2 > 9 = 1", trip)).isEqualByComparingTo("1");
+        assertThat(vendor("vendor when (extra_km) > 30 = 1", trip)).isEqualByComparingTo("0");
+        assertThat(vendor("vendor when (extra_km > 20 or weekend) and hour < 13 = 1", trip)).isEqualByComparingTo("1");
+        assertThat(vendor("vendor when ((extra_km > 20)) = 1", trip)).isEqualByComparingTo("1");
+        assertThat(vendor("vendor when not (min(extra_km, 10) + 1 >= 11) = 1", trip)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void ignoresCase() {
+        assertThat(vendor("VENDOR When Extra_KM > 0 = EXTRA_KM", trip("21", "1", WEEKDAY_NOON)))
+                .isEqualByComparingTo("1");
+    }
+
+    @Test
+    void reportsLineAndColumnOfSyntaxErrors() {
+        assertSyntaxError("vendor = speed", "line 1, column 10: unknown variable 'speed'");
+        assertSyntaxError("# comment\nvendor when extra_km > 0 extra_km", "line 2, column 26: expected '='");
+        assertSyntaxError("vendor = 1 $ 2", "line 1, column 12: unexpected character '$'");
+        assertSyntaxError("vendor = 1 2", "line 1, column 12: unexpected '2'");
+        assertSyntaxError("driver = 1", "line 1, column 1: expected 'vendor' or 'employee'");
+        assertSyntaxError("vendor when extra_km = 1", "line 1, column 22: expected a comparison operator");
+        assertSyntaxError("vendor when (extra_km > 0 = 1", "line 1, column 27: expected ')'");
+        assertSyntaxError("vendor = min(1, 2", "line 1, column 18: expected ')'");
+        assertSyntaxError("vendor = 1.2.3", "line 1, column 10: malformed number '1.2.3'");
+    }
+
+    private BigDecimal vendor(String rules, TripBillingRow trip) {
+        return IncentiveRuleParser.compile(rules).evaluate(trip, config).getVendorIncentive();
+    }
+
+    private static void assertSyntaxError(String rules, String message) {
+        assertThatThrownBy(() -> IncentiveRuleParser.compile(rules))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Incentive rules " + message);
+    }
+
+    private static TripBillingRow trip(String distanceKm, String durationHours, LocalDateTime tripDate) {
+        return new TripBillingRow(1L, 1L, 1L, tripDate, new BigDecimal(distanceKm), new BigDecimal(durationHours),
+                "A", "B");
+    }
+}
@@ -0,0 +1,118 @@
+package com.moveinsync.billing.strategy;
+
+import com.moveinsync.billing.dto.TripBillingRow;
+import com.moveinsync.billing.model.entity.BillingConfiguration;
+import com.moveinsync.billing.rules.IncentiveRuleEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelBillingEvaluatorTest {
+
+    // An uneven chunk size so the last chunk is partial
+    private final ParallelBillingEvaluator sequential = new ParallelBillingEvaluator(false, 0, 97, 1);
+    private final ParallelBillingEvaluator parallel = new ParallelBillingEvaluator(true, 0, 97, 4);
+    private final IncentiveRuleEngine incentiveRules = new IncentiveRuleEngine();
+
+    private final BillingConfiguration config = BillingConfiguration.builder()
+            .fixedMonthlyCost(new BigDecimal("50000.00"))
+            .includedTrips(700)
+            .includedKilometers(new BigDecimal("40000.00"))
+            .costPerTrip(new BigDecimal("75.00"))
+            .costPerKilometer(new BigDecimal("11.25"))
+            .standardKilometersPerTrip(new BigDecimal("25.00"))
+            .standardHoursPerTrip(new BigDecimal("1.50"))
+            .extraKilometerRate(new BigDecimal("12.50"))
+            .extraHourRate(new BigDecimal("150.00"))
+            .build();
+
+    ParallelBillingEvaluatorTest() {
+        ReflectionTestUtils.setField(incentiveRules, "bulkEnabled", true);
+        ReflectionTestUtils.setField(incentiveRules, "bulkMinTrips", 64);
+    }
+
+    @AfterEach
+    void shutdown() {
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    void tripStrategyMatchesSequentialPass() {
+        assertParallelMatchesSequential(TripBillingStrategy::new);
+    }
+
+    @Test
+    void packageStrategyMatchesSequentialPass() {
+        assertParallelMatchesSequential(PackageBillingStrategy::new);
+    }
+
+    @Test
+    void hybridStrategyMatchesSequentialPass() {
+        assertParallelMatchesSequential(HybridBillingStrategy::new);
+    }
+
+    @Test
+    void hybridChargesExtraTripsByDateWhateverTheInputOrder() {
+        List<TripBillingRow> sorted = sortedTrips(2_000, 11);
+        List<TripBillingRow> shuffled = shuffled(sorted, 5);
+        BillingStrategy strategy = new HybridBillingStrategy(incentiveRules, parallel);
+
+        BillingResult fromSorted = strategy.calculate(sorted, config, false);
+        BillingResult fromShuffled = strategy.calculate(shuffled, config, false);
+
+        assertThat(fromShuffled.getTotalAmount()).isEqualTo(fromSorted.getTotalAmount());
+        assertThat(fromShuffled.getBaseBilling()).isEqualTo(fromSorted.getBaseBilling());
+        assertThat(fromShuffled.getTotalIncentives()).isEqualTo(fromSorted.getTotalIncentives());
+    }
+
+    private void assertParallelMatchesSequential(
+            BiFunction<IncentiveRuleEngine, ParallelBillingEvaluator, BillingStrategy> factory) {
+        BillingStrategy inline = factory.apply(incentiveRules, sequential);
+        BillingStrategy chunked = factory.apply(incentiveRules, parallel);
+        List<TripBillingRow> sorted = sortedTrips(2_000, 11);
+
+        for (List<TripBillingRow> trips : List.of(sorted, shuffled(sorted, 5))) {
+            for (boolean withLineItems : new boolean[]{false, true}) {
+                BillingResult expected = inline.calculate(trips, config, withLineItems);
+                BillingResult actual = chunked.calculate(trips, config, withLineItems);
+
+                // Equal including BigDecimal scale and line item order
+                assertThat(actual).isEqualTo(expected);
+                assertThat(actual.getLineItems()).hasSize(withLineItems ? trips.size() : 0);
+            }
+        }
+    }
+
+    // Two-decimal distances and durations, with many trips sharing a tripDate
+    private static List<TripBillingRow> sortedTrips(int count, long seed) {
+        Random random = new Random(seed);
+        List<TripBillingRow> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trips.add(new TripBillingRow((long) i + 1, 1L, (long) random.nextInt(50),
+                    LocalDateTime.of(2025, 11, 1, 0, 0).plusHours(random.nextInt(30 * 24)),
+                    BigDecimal.valueOf(random.nextInt(6_000), 2),
+                    BigDecimal.valueOf(random.nextInt(400), 2),
+                    "A", "B"));
+        }
+        trips.sort(Comparator.comparing(TripBillingRow::getTripDate).thenComparing(TripBillingRow::getId));
+        return trips;
+    }
+
+    private static List<TripBillingRow> shuffled(List<TripBillingRow> trips, long seed) {
+        List<TripBillingRow> copy = new ArrayList<>(trips);
+        Collections.shuffle(copy, new Random(seed));
+        return copy;
+    }
+}
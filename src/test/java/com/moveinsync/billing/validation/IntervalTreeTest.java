@@ -0,0 +1,98 @@
+package com.moveinsync.billing.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    private record Interval(String name, long start, long end) {
+    }
+
+    @Test
+    void touchingEndpointsDoNotOverlap() {
+        IntervalTree<Interval> tree = tree(List.of(
+                new Interval("morning", 9, 10),
+                new Interval("evening", 18, 19)));
+
+        // Back-to-back trips: one ends exactly when the next starts
+        assertThat(overlaps(tree, 10, 18)).isEmpty();
+        assertThat(overlaps(tree, 8, 9)).isEmpty();
+        assertThat(overlaps(tree, 19, 20)).isEmpty();
+        // One unit inside either side does overlap
+        assertThat(overlaps(tree, 9, 9 + 1)).containsExactly("morning");
+        assertThat(overlaps(tree, 17, 18 + 1)).containsExactly("evening");
+        assertThat(overlaps(tree, 9, 19)).containsExactly("morning", "evening");
+    }
+
+    @Test
+    void findsContainingAndContainedIntervals() {
+        IntervalTree<Interval> tree = tree(List.of(
+                new Interval("long", 0, 100),
+                new Interval("short", 40, 50)));
+
+        assertThat(overlaps(tree, 45, 46)).containsExactlyInAnyOrder("long", "short");
+        assertThat(overlaps(tree, 60, 70)).containsExactly("long");
+    }
+
+    @Test
+    void reportsPositionsInStartOrder() {
+        IntervalTree<Interval> tree = tree(List.of(
+                new Interval("c", 30, 40),
+                new Interval("a", 10, 20),
+                new Interval("b", 20, 30)));
+        List<Integer> positions = new ArrayList<>();
+
+        tree.forEachOverlap(0, 100, (interval, position) -> {
+            assertThat(tree.get(position)).isSameAs(interval);
+            positions.add(position);
+        });
+
+        assertThat(positions).containsExactlyInAnyOrder(0, 1, 2);
+        assertThat(tree.get(0).name()).isEqualTo("a");
+    }
+
+    @Test
+    void emptyTreeFindsNothing() {
+        IntervalTree<Interval> tree = tree(List.of());
+
+        assertThat(tree.size()).isZero();
+        assertThat(overlaps(tree, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void matchesBruteForceOnRandomIntervals() {
+        Random random = new Random(3);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            intervals.add(new Interval("i" + i, start, start + random.nextInt(200)));
+        }
+        IntervalTree<Interval> tree = tree(intervals);
+
+        for (int q = 0; q < 1_000; q++) {
+            long start = random.nextInt(10_200);
+            long end = start + random.nextInt(300);
+            List<String> expected = intervals.stream()
+                    .filter(interval -> interval.start() < end && interval.end() > start)
+                    .map(Interval::name)
+                    .toList();
+
+            assertThat(overlaps(tree, start, end)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static IntervalTree<Interval> tree(List<Interval> intervals) {
+        return new IntervalTree<>(intervals, Interval::start, Interval::end);
+    }
+
+    private static List<String> overlaps(IntervalTree<Interval> tree, long start, long end) {
+        List<String> found = new ArrayList<>();
+        tree.forEachOverlap(start, end, (interval, position) -> found.add(interval.name()));
+        return found;
+    }
+}